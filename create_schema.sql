@@ -3,8 +3,11 @@ CREATE DATABASE IF NOT EXISTS bookstore_db;
 USE bookstore_db;
 
 -- Drop tables if they exist (in reverse order of dependencies)
+DROP TABLE IF EXISTS OrderItemsArchive;
+DROP TABLE IF EXISTS OrdersArchive;
 DROP TABLE IF EXISTS OrderItems;
 DROP TABLE IF EXISTS Orders;
+DROP TABLE IF EXISTS BookRatings;
 DROP TABLE IF EXISTS Reviews;
 DROP TABLE IF EXISTS BookAuthors;
 DROP TABLE IF EXISTS Books;
@@ -59,6 +62,20 @@ CREATE TABLE Reviews (
     CHECK (rating >= 1 AND rating <= 5)
 );
 
+-- BookRatings table: per-book rating aggregate, maintained by ReviewDAO
+-- in the same transaction as every review insert/update/delete
+CREATE TABLE BookRatings (
+    ISBN VARCHAR(13) PRIMARY KEY,
+    review_count INT NOT NULL DEFAULT 0,
+    rating_sum INT NOT NULL DEFAULT 0,
+    stars_1 INT NOT NULL DEFAULT 0,
+    stars_2 INT NOT NULL DEFAULT 0,
+    stars_3 INT NOT NULL DEFAULT 0,
+    stars_4 INT NOT NULL DEFAULT 0,
+    stars_5 INT NOT NULL DEFAULT 0,
+    FOREIGN KEY (ISBN) REFERENCES Books(ISBN) ON DELETE CASCADE
+);
+
 -- Orders table
 CREATE TABLE Orders (
     order_id INT AUTO_INCREMENT PRIMARY KEY,
@@ -66,6 +83,10 @@ CREATE TABLE Orders (
     order_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
     total_amount DECIMAL(10, 2) NOT NULL,
     status VARCHAR(50) NOT NULL DEFAULT 'Pending',
+    -- copies in the order, stored when it is placed, so order history never reads OrderItems
+    item_count INT NOT NULL DEFAULT 0,
+    -- last change to the row; for a cart, the last time an item was added or removed
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (customer_id) REFERENCES Customers(customer_id) ON DELETE CASCADE,
     CHECK (total_amount >= 0)
 );
@@ -77,17 +98,47 @@ CREATE TABLE OrderItems (
     ISBN VARCHAR(13) NOT NULL,
     quantity INT NOT NULL,
     price_at_purchase DECIMAL(10, 2) NOT NULL,
+    UNIQUE KEY uq_orderitems_order_isbn (order_id, ISBN), -- one line per book; also serves lookups by order_id
     FOREIGN KEY (order_id) REFERENCES Orders(order_id) ON DELETE CASCADE,
     FOREIGN KEY (ISBN) REFERENCES Books(ISBN) ON DELETE CASCADE,
     CHECK (quantity > 0),
     CHECK (price_at_purchase >= 0)
 );
 
+-- Archive of old placed orders (moved here by OrderArchiver), so Orders and OrderItems
+-- only hold carts and recent orders. Same columns and keys; order IDs are kept.
+CREATE TABLE OrdersArchive (
+    order_id INT PRIMARY KEY,
+    customer_id INT NOT NULL,
+    order_date DATETIME NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    item_count INT NOT NULL DEFAULT 0,
+    updated_at DATETIME NOT NULL,
+    FOREIGN KEY (customer_id) REFERENCES Customers(customer_id) ON DELETE CASCADE
+);
+
+CREATE TABLE OrderItemsArchive (
+    order_item_id INT PRIMARY KEY,
+    order_id INT NOT NULL,
+    ISBN VARCHAR(13) NOT NULL,
+    quantity INT NOT NULL,
+    price_at_purchase DECIMAL(10, 2) NOT NULL,
+    UNIQUE KEY uq_orderitemsarchive_order_isbn (order_id, ISBN),
+    FOREIGN KEY (order_id) REFERENCES OrdersArchive(order_id) ON DELETE CASCADE,
+    FOREIGN KEY (ISBN) REFERENCES Books(ISBN) ON DELETE CASCADE
+);
+
 -- Create indexes for better query performance
 CREATE INDEX idx_books_title ON Books(title);
+CREATE INDEX idx_authors_name ON Authors(author_name);
+CREATE INDEX idx_bookauthors_author ON BookAuthors(author_id);
 CREATE INDEX idx_customers_email ON Customers(email);
-CREATE INDEX idx_orders_customer ON Orders(customer_id);
+CREATE INDEX idx_orders_customer_status ON Orders(customer_id, status);
 CREATE INDEX idx_orders_date ON Orders(order_date);
-CREATE INDEX idx_reviews_book ON Reviews(ISBN);
+-- order history: covers the whole listing query, in keyset order
+CREATE INDEX idx_orders_customer_history ON Orders(customer_id, order_date, order_id, status, total_amount, item_count);
+CREATE INDEX idx_orders_status_updated ON Orders(status, updated_at); -- abandoned cart sweep
+CREATE INDEX idx_ordersarchive_customer_history ON OrdersArchive(customer_id, order_date, order_id, status, total_amount, item_count);
+CREATE INDEX idx_reviews_book_date ON Reviews(ISBN, review_date);
 CREATE INDEX idx_reviews_customer ON Reviews(customer_id);
-CREATE INDEX idx_orderitems_order ON OrderItems(order_id);
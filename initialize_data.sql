@@ -120,6 +120,13 @@ INSERT INTO Reviews (ISBN, customer_id, rating, review_text, review_date) VALUES
 ('9780547928203', 14, 5, 'Epic fantasy at its finest. A masterpiece of world-building.', '2024-10-19 15:45:00'),
 ('9780439064873', 15, 5, 'Just as good as the first! The series keeps getting better.', '2024-11-07 11:00:00');
 
+-- Build the rating aggregates for the reviews above
+INSERT INTO BookRatings (ISBN, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5)
+SELECT ISBN, COUNT(*), SUM(rating),
+       SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), SUM(rating = 4), SUM(rating = 5)
+FROM Reviews
+GROUP BY ISBN;
+
 -- Insert 20 Orders
 INSERT INTO Orders (customer_id, order_date, total_amount, status) VALUES
 (1, '2024-11-01 10:30:00', 39.97, 'Delivered'),
@@ -164,4 +171,9 @@ INSERT INTO OrderItems (order_id, ISBN, quantity, price_at_purchase) VALUES
 (8, '9780684830490', 1, 12.99),  -- Order 8
 (8, '9780385490818', 1, 14.99),
 (8, '9780316769174', 1, 10.99),
-(9, '9780439023528', 1, 14.99);  -- Order 9
\ No newline at end of file
+(9, '9780439023528', 1, 14.99);  -- Order 9
+
+-- Item counts of the orders that are already placed (normally stored at checkout)
+UPDATE Orders o
+SET o.item_count = (SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItems oi WHERE oi.order_id = o.order_id)
+WHERE o.status <> 'Pending';
@@ -11,6 +11,9 @@ import java.util.List;
 
 import com.bookstore.dao.AuthorDAO; // We need to import the new DAO
 import com.bookstore.model.Author; // We need to import the new Model
+import com.bookstore.model.Page;
+import com.bookstore.util.Log;
+import com.bookstore.util.PageCursor;
 
 /**
  * Servlet controller for all Author-related C.R.U.D. actions.
@@ -24,7 +27,13 @@ import com.bookstore.model.Author; // We need to import the new Model
     "/deleteAuthor"
 })
 public class AuthorServlet extends HttpServlet {
+
     private static final long serialVersionUID = 1L;
+    private static final Log log = Log.getLog(AuthorServlet.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private AuthorDAO authorDAO;
 
     public void init() {
@@ -35,7 +44,7 @@ public class AuthorServlet extends HttpServlet {
             throws ServletException, IOException {
         
         String action = request.getServletPath();
-        System.out.println("[AuthorServlet] (doPost) Received request for action: " + action);
+        log.info("(doPost) Received request for action: {}", action);
         
         try {
             switch (action) {
@@ -55,7 +64,7 @@ public class AuthorServlet extends HttpServlet {
             throws ServletException, IOException {
         
         String action = request.getServletPath();
-        System.out.println("[AuthorServlet] (doGet) Received request for action: " + action);
+        log.info("(doGet) Received request for action: {}", action);
 
         try {
             switch (action) {
@@ -80,25 +89,33 @@ public class AuthorServlet extends HttpServlet {
 
     // --- C.R.U.D. Action Methods ---
 
+    /**
+     * Shows one page of the author directory ("size" authors, starting from the
+     * "after" or "before" cursor; see AuthorDAO.listAuthorsPage).
+     */
     private void listAuthors(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        System.out.println("[AuthorServlet] Executing action: listAuthors");
-        List<Author> authorList = authorDAO.listAllAuthors();
+        log.info("Executing action: listAuthors");
+        int pageSize = PageCursor.parsePageSize(request.getParameter("size"), DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        Page<Author> page = authorDAO.listAuthorsPage(
+                request.getParameter("after"), request.getParameter("before"), pageSize);
+        List<Author> authorList = page.getItems();
         request.setAttribute("authorList", authorList);
+        request.setAttribute("authorPage", page);
         RequestDispatcher dispatcher = request.getRequestDispatcher("author-list.jsp");
         dispatcher.forward(request, response);
     }
 
     private void showNewForm(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        System.out.println("[AuthorServlet] Executing action: showNewForm");
+        log.info("Executing action: showNewForm");
         RequestDispatcher dispatcher = request.getRequestDispatcher("author-form.jsp");
         dispatcher.forward(request, response);
     }
 
     private void showEditForm(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        System.out.println("[AuthorServlet] Executing action: showEditForm");
+        log.info("Executing action: showEditForm");
         int authorId = Integer.parseInt(request.getParameter("id"));
         Author existingAuthor = authorDAO.findAuthorById(authorId);
         
@@ -109,7 +126,7 @@ public class AuthorServlet extends HttpServlet {
 
     private void insertAuthor(HttpServletRequest request, HttpServletResponse response)
             throws IOException, ServletException {
-        System.out.println("[AuthorServlet] Executing action: insertAuthor");
+        log.info("Executing action: insertAuthor");
 
         String authorName = request.getParameter("authorName");
         String bio = request.getParameter("bio");
@@ -122,7 +139,7 @@ public class AuthorServlet extends HttpServlet {
 
     private void updateAuthor(HttpServletRequest request, HttpServletResponse response)
             throws IOException, ServletException {
-        System.out.println("[AuthorServlet] Executing action: updateAuthor");
+        log.info("Executing action: updateAuthor");
         
         int authorId = Integer.parseInt(request.getParameter("authorId"));
         String authorName = request.getParameter("authorName");
@@ -136,7 +153,7 @@ public class AuthorServlet extends HttpServlet {
 
     private void deleteAuthor(HttpServletRequest request, HttpServletResponse response)
             throws IOException, ServletException {
-        System.out.println("[AuthorServlet] Executing action: deleteAuthor");
+        log.info("Executing action: deleteAuthor");
         
         int authorId = Integer.parseInt(request.getParameter("id"));
         
@@ -8,14 +8,18 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession; // Import HttpSession
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
-import com.bookstore.dao.AuthorDAO; 
+import com.bookstore.dao.AuthorDAO;
 import com.bookstore.dao.BookDAO;
-import com.bookstore.dao.ReviewDAO; // Import ReviewDAO
-import com.bookstore.model.Author;
+import com.bookstore.dao.BookDetailsDAO;
 import com.bookstore.model.Book;
-import com.bookstore.model.Review; // Import Review model
+import com.bookstore.model.BookDetails;
+import com.bookstore.model.Page;
+import com.bookstore.util.Log;
+import com.bookstore.util.PageCursor;
+import com.bookstore.util.UnitOfWork;
 
 /**
  * Servlet controller for all Book-related C.R.U.D. and Search actions.
@@ -31,16 +35,21 @@ import com.bookstore.model.Review; // Import Review model
     "/viewBook"     // Show the book details page
 })
 public class BookServlet extends HttpServlet {
+
     private static final long serialVersionUID = 1L;
+    private static final Log log = Log.getLog(BookServlet.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
     
     private BookDAO bookDAO;
     private AuthorDAO authorDAO;
-    private ReviewDAO reviewDAO; // Add ReviewDAO
+    private BookDetailsDAO bookDetailsDAO;
 
     public void init() {
         bookDAO = new BookDAO();
         authorDAO = new AuthorDAO();
-        reviewDAO = new ReviewDAO(); // Initialize ReviewDAO
+        bookDetailsDAO = new BookDetailsDAO();
     }
 
     /**
@@ -51,7 +60,7 @@ public class BookServlet extends HttpServlet {
         
         // We use request.getServletPath() to get the clean URL pattern (e.g., "/insert")
         String action = request.getServletPath();
-        System.out.println("[BookServlet] (doPost) Action: " + action);
+        log.info("(doPost) Action: {}", action);
         
         try {
             switch (action) {
@@ -85,7 +94,7 @@ public class BookServlet extends HttpServlet {
             action = "search";
         }
         
-        System.out.println("[BookServlet] (doGet) Action: " + action);
+        log.info("(doGet) Action: {}", action);
 
         try {
             switch (action) {
@@ -118,6 +127,9 @@ public class BookServlet extends HttpServlet {
     /**
      * Handles both listing all books AND searching.
      * It checks for a "query" parameter.
+     * The catalog listing is paginated: "size" books per page, starting from the
+     * "after" or "before" cursor (see BookDAO.listBooksPage).
+     * The authors of all listed books are loaded with one batched query.
      */
     private void listBooks(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
@@ -127,53 +139,52 @@ public class BookServlet extends HttpServlet {
 
         if (query != null && !query.trim().isEmpty()) {
             // This is a search
-            System.out.println("[BookServlet] Executing action: searchBooks for query: " + query);
+            log.info("Executing action: searchBooks for query: {}", query);
             bookList = bookDAO.searchBooks(query);
         } else {
-            // This is a normal "list all"
-            System.out.println("[BookServlet] Executing action: listBooks");
-            bookList = bookDAO.listAllBooks();
+            // This is a normal "list all", one page at a time
+            log.info("Executing action: listBooks");
+            int pageSize = PageCursor.parsePageSize(request.getParameter("size"), DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+            Page<Book> page = bookDAO.listBooksPage(
+                    request.getParameter("after"), request.getParameter("before"), pageSize);
+            bookList = page.getItems();
+            request.setAttribute("bookPage", page);
+        }
+        
+        List<String> isbns = new ArrayList<>(bookList.size());
+        for (Book book : bookList) {
+            isbns.add(book.getIsbn());
         }
         
         request.setAttribute("bookList", bookList);
+        request.setAttribute("bookAuthors", authorDAO.getAuthorsForBooks(isbns));
         RequestDispatcher dispatcher = request.getRequestDispatcher("book-list.jsp");
         dispatcher.forward(request, response);
     }
-    
+
     /**
      * Shows the book details page.
-     * This method needs to fetch BOTH the book, its authors, AND its reviews.
+     * The book, its authors, rating stats, first reviews and the viewer's own review
+     * are all loaded by BookDetailsDAO in two round trips.
      */
     private void viewBookDetails(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
         String isbn = request.getParameter("isbn");
-        System.out.println("[BookServlet] Executing action: viewBookDetails for ISBN " + isbn);
-        
-        // 1. Fetch Book & Authors
-        Book book = bookDAO.findBookByIsbn(isbn);
-        List<Author> authors = authorDAO.getAuthorsForBook(isbn);
+        log.info("Executing action: viewBookDetails for ISBN {}", isbn);
         
-        // 2. Fetch Reviews & Stats
-        List<Review> reviews = reviewDAO.listReviewsForBook(isbn);
-        double avgRating = reviewDAO.getAverageRating(isbn);
-        int reviewCount = reviewDAO.getReviewCount(isbn);
+        // Both queries share the request's connection; read them from one snapshot
+        // so the rating, review count and review list always agree with each other.
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.beginReadSnapshot();
+        }
         
-        // 3. Check if current user has a review (for Edit form)
         HttpSession session = request.getSession(false);
-        Review userReview = null;
-        if (session != null && session.getAttribute("customerId") != null) {
-            int customerId = (int) session.getAttribute("customerId");
-            userReview = reviewDAO.findReviewByCustomerAndBook(customerId, isbn);
-        }
+        Integer customerId = session == null ? null : (Integer) session.getAttribute("customerId");
+        BookDetails details = bookDetailsDAO.findBookDetails(isbn, customerId);
         
-        // 4. Set Attributes
-        request.setAttribute("book", book);
-        request.setAttribute("authors", authors);
-        request.setAttribute("reviews", reviews);
-        request.setAttribute("avgRating", avgRating);
-        request.setAttribute("reviewCount", reviewCount);
-        request.setAttribute("userReview", userReview);
+        request.setAttribute("details", details);
         
         RequestDispatcher dispatcher = request.getRequestDispatcher("book-details.jsp");
         dispatcher.forward(request, response);
@@ -184,7 +195,7 @@ public class BookServlet extends HttpServlet {
      */
     private void showNewForm(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        System.out.println("[BookServlet] Executing action: showNewForm");
+        log.info("Executing action: showNewForm");
         RequestDispatcher dispatcher = request.getRequestDispatcher("book-form.jsp");
         dispatcher.forward(request, response);
     }
@@ -195,7 +206,7 @@ public class BookServlet extends HttpServlet {
      */
     private void showEditForm(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        System.out.println("[BookServlet] Executing action: showEditForm");
+        log.info("Executing action: showEditForm");
         String isbn = request.getParameter("isbn");
         Book existingBook = bookDAO.findBookByIsbn(isbn);
         
@@ -209,7 +220,7 @@ public class BookServlet extends HttpServlet {
      */
     private void insertBook(HttpServletRequest request, HttpServletResponse response)
             throws IOException, ServletException {
-        System.out.println("[BookServlet] Executing action: insertBook");
+        log.info("Executing action: insertBook");
 
         String isbn = request.getParameter("isbn");
         String title = request.getParameter("title");
@@ -228,7 +239,7 @@ public class BookServlet extends HttpServlet {
      */
     private void updateBook(HttpServletRequest request, HttpServletResponse response)
             throws IOException, ServletException {
-        System.out.println("[BookServlet] Executing action: updateBook");
+        log.info("Executing action: updateBook");
         
         String isbn = request.getParameter("isbn");
         String title = request.getParameter("title");
@@ -246,7 +257,7 @@ public class BookServlet extends HttpServlet {
     */
     private void deleteBook(HttpServletRequest request, HttpServletResponse response)
             throws IOException, ServletException {
-        System.out.println("[BookServlet] Executing action: deleteBook");
+        log.info("Executing action: deleteBook");
         
         String isbn = request.getParameter("isbn");
         bookDAO.deleteBook(isbn);
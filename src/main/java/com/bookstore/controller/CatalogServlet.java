@@ -0,0 +1,123 @@
+package com.bookstore.controller;
+
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.MultipartConfig;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.Part;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.bookstore.model.ImportResult;
+import com.bookstore.service.CatalogExporter;
+import com.bookstore.service.CatalogImporter;
+import com.bookstore.util.Log;
+
+/**
+ * Servlet controller for the admin bulk catalog tools.
+ * GET /importBooks shows the upload form; POST /importBooks imports the uploaded CSV file.
+ * GET /exportBooks?format=csv|ndjson streams the whole catalog as a download.
+ */
+@WebServlet(urlPatterns = {
+    "/importBooks",     // Show the import form / handle the upload
+    "/exportBooks"      // Download the catalog
+})
+@MultipartConfig(
+    fileSizeThreshold = 1024 * 1024,          // uploads above 1 MB are buffered on disk, not in memory
+    maxFileSize = 1024L * 1024 * 1024,        // 1 GB
+    maxRequestSize = 1024L * 1024 * 1024
+)
+public class CatalogServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final Log log = Log.getLog(CatalogServlet.class);
+
+    private CatalogImporter catalogImporter;
+    private CatalogExporter catalogExporter;
+
+    public void init() {
+        catalogImporter = new CatalogImporter();
+        catalogExporter = new CatalogExporter();
+    }
+
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (!isAdmin(request)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        if ("/exportBooks".equals(request.getServletPath())) {
+            exportBooks(request, response);
+            return;
+        }
+        log.info("Executing action: showImportForm");
+        RequestDispatcher dispatcher = request.getRequestDispatcher("import-books.jsp");
+        dispatcher.forward(request, response);
+    }
+
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (!isAdmin(request)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        log.info("Executing action: importBooks");
+
+        Part file = request.getPart("file");
+        if (file == null || file.getSize() == 0) {
+            request.setAttribute("errorMessage", "Please choose a CSV file to import.");
+        } else {
+            log.info("Importing '{}' ({} bytes)", file.getSubmittedFileName(), file.getSize());
+            // The file is read as a stream, one row at a time
+            try (Reader reader = new BufferedReader(
+                    new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+                ImportResult result = catalogImporter.importCsv(reader);
+                request.setAttribute("importResult", result);
+            } catch (IOException e) {
+                log.warn("Import failed: {}", e.getMessage());
+                request.setAttribute("errorMessage", "Import stopped: " + e.getMessage());
+            } finally {
+                file.delete();
+            }
+        }
+
+        RequestDispatcher dispatcher = request.getRequestDispatcher("import-books.jsp");
+        dispatcher.forward(request, response);
+    }
+
+    /**
+     * Streams the catalog straight to the response, without building a list first.
+     */
+    private void exportBooks(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(request.getParameter("format"));
+        log.info("Executing action: exportBooks ({})", ndjson ? "ndjson" : "csv");
+
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"catalog." + (ndjson ? "ndjson" : "csv") + "\"");
+
+        Writer out = response.getWriter();
+        long rows = ndjson ? catalogExporter.exportNdjson(out) : catalogExporter.exportCsv(out);
+        if (rows < 0) {
+            // Headers are already sent; an incomplete file is all we can signal.
+            log.warn("Catalog export ended early because of a database error.");
+        }
+        out.flush();
+    }
+
+    private boolean isAdmin(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null && "admin".equals(session.getAttribute("userRole"));
+    }
+}
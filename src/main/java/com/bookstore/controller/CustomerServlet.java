@@ -12,6 +12,8 @@ import java.io.IOException;
 
 import com.bookstore.dao.CustomerDAO;
 import com.bookstore.model.Customer;
+import com.bookstore.service.CartStore;
+import com.bookstore.util.Log;
 
 /**
  * Servlet controller for Customer-related actions:
@@ -22,7 +24,9 @@ import com.bookstore.model.Customer;
  */
 @WebServlet("/customer") // All customer actions will go through /customer
 public class CustomerServlet extends HttpServlet {
+
     private static final long serialVersionUID = 1L;
+    private static final Log log = Log.getLog(CustomerServlet.class);
     private CustomerDAO customerDAO;
 
     public void init() {
@@ -34,7 +38,7 @@ public class CustomerServlet extends HttpServlet {
         String action = request.getParameter("action");
         if (action == null) action = "";
         
-        System.out.println("[CustomerServlet] (doPost) Action: " + action);
+        log.info("(doPost) Action: {}", action);
         
         try {
             switch (action) {
@@ -58,7 +62,7 @@ public class CustomerServlet extends HttpServlet {
         String action = request.getParameter("action");
         if (action == null) action = "";
         
-        System.out.println("[CustomerServlet] (doGet) Action: " + action);
+        log.info("(doGet) Action: {}", action);
 
         try {
             switch (action) {
@@ -106,7 +110,7 @@ public class CustomerServlet extends HttpServlet {
 
         if (customer != null) {
             // Login successful!
-            System.out.println("[CustomerServlet] Login successful for: " + customer.getEmail());
+            log.info("Login successful for: {}", customer.getEmail());
             HttpSession session = request.getSession();
             session.setAttribute("customerName", customer.getName());
             session.setAttribute("customerId", customer.getCustomerId());
@@ -124,7 +128,7 @@ public class CustomerServlet extends HttpServlet {
             
         } else {
             // Login failed
-            System.out.println("[CustomerServlet] Login failed for: " + email);
+            log.info("Login failed for: {}", email);
             showLoginPage(request, response, null, "Invalid email or password. Please try again.");
         }
     }
@@ -142,11 +146,11 @@ public class CustomerServlet extends HttpServlet {
 
         if (isRegistered) {
             // Registration successful! Send to login page with a success message.
-            System.out.println("[CustomerServlet] Registration successful for: " + email);
+            log.info("Registration successful for: {}", email);
             showLoginPage(request, response, "Registration successful! Please login.", null);
         } else {
             // Registration failed (probably because email already exists)
-            System.out.println("[CustomerServlet] Registration failed for: " + email);
+            log.info("Registration failed for: {}", email);
             showRegisterPage(request, response, "Registration failed. An account with this email already exists.");
         }
     }
@@ -155,9 +159,13 @@ public class CustomerServlet extends HttpServlet {
             throws IOException {
         HttpSession session = request.getSession(false); // Get session, but don't create a new one
         if (session != null) {
+            Integer customerId = (Integer) session.getAttribute("customerId");
+            if (customerId != null && CartStore.getInstance().isEnabled()) {
+                CartStore.getInstance().flush(customerId); // write any buffered cart adds
+            }
             session.invalidate(); // Invalidate the session, logging the user out
         }
-        System.out.println("[CustomerServlet] User logged out.");
+        log.info("User logged out.");
         response.sendRedirect(request.getContextPath() + "/customer?action=showLogin"); // Redirect to login page
     }
 }
\ No newline at end of file
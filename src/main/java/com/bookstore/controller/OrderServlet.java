@@ -9,22 +9,49 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import com.bookstore.dao.AuthorDAO;
+import com.bookstore.dao.BookDAO;
 import com.bookstore.dao.OrderDAO;
 import com.bookstore.model.Order;
 import com.bookstore.model.OrderItem;
+import com.bookstore.model.Page;
+import com.bookstore.service.CartStore;
+import com.bookstore.service.CheckoutPipeline;
+import com.bookstore.util.Log;
+import com.bookstore.util.PageCursor;
 
 /**
- * Servlet controller for Shopping Cart (Orders) actions.
+ * Servlet controller for Shopping Cart (Orders) actions and the customer's order history.
  */
-@WebServlet("/cart")
+@WebServlet(urlPatterns = {
+    "/cart",
+    "/orders"
+})
 public class OrderServlet extends HttpServlet {
+
     private static final long serialVersionUID = 1L;
+    private static final Log log = Log.getLog(OrderServlet.class);
+
+    /** Session attribute holding the order ID of the customer's cart. */
+    private static final String CART_ORDER_ID = "cartOrderId";
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private OrderDAO orderDAO;
+    private AuthorDAO authorDAO;
+    private BookDAO bookDAO;
+    private final CheckoutPipeline checkoutPipeline = CheckoutPipeline.getInstance();
+    private final CartStore cartStore = CartStore.getInstance();
 
     public void init() {
         orderDAO = new OrderDAO();
+        authorDAO = new AuthorDAO();
+        bookDAO = new BookDAO();
     }
 
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
@@ -32,7 +59,7 @@ public class OrderServlet extends HttpServlet {
         String action = request.getParameter("action");
         if (action == null) action = "";
         
-        System.out.println("[OrderServlet] (doPost) Action: " + action);
+        log.info("(doPost) Action: {}", action);
 
         try {
             switch (action) {
@@ -51,10 +78,15 @@ public class OrderServlet extends HttpServlet {
 
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
+        if ("/orders".equals(request.getServletPath())) {
+            listOrders(request, response);
+            return;
+        }
+
         String action = request.getParameter("action");
         if (action == null) action = "view"; // Default action is to view the cart
         
-        System.out.println("[OrderServlet] (doGet) Action: " + action);
+        log.info("(doGet) Action: {}", action);
 
         try {
             switch (action) {
@@ -89,13 +121,36 @@ public class OrderServlet extends HttpServlet {
             return;
         }
 
-        System.out.println("[OrderServlet] Executing: viewCart for customer " + customerId);
+        log.info("Executing: viewCart for customer {}", customerId);
+        flushBufferedAdds(customerId);
         
-        Order cart = orderDAO.findOrCreateCart(customerId);
+        // The cached cart ID is validated by the lookup itself (primary key)
+        Order cart = orderDAO.findCart(cartOrderId(session, customerId), customerId);
+        if (cart == null) {
+            forgetCart(session);
+            cart = orderDAO.findOrCreateCart(customerId);
+            session.setAttribute(CART_ORDER_ID, cart.getOrderId());
+        }
         List<OrderItem> cartItems = orderDAO.getCartItems(cart.getOrderId());
         
+        // Authors of every book in the cart, in one query
+        List<String> isbns = new ArrayList<>(cartItems.size());
+        for (OrderItem item : cartItems) {
+            isbns.add(item.getIsbn());
+        }
+        
         request.setAttribute("cart", cart);
         request.setAttribute("cartItems", cartItems);
+        request.setAttribute("bookAuthors", authorDAO.getAuthorsForBooks(isbns));
+        
+        // Buffered adds that were dropped when written (out of stock); shown once
+        if (cartStore.isEnabled()) {
+            Map<String, Integer> rejected = cartStore.takeRejected(customerId);
+            if (!rejected.isEmpty()) {
+                request.setAttribute("rejectedItems", rejected);
+                request.setAttribute("rejectedBooks", bookDAO.findBooksByIsbns(rejected.keySet()));
+            }
+        }
         
         RequestDispatcher dispatcher = request.getRequestDispatcher("cart.jsp");
         dispatcher.forward(request, response);
@@ -113,16 +168,31 @@ public class OrderServlet extends HttpServlet {
         }
         
         String isbn = request.getParameter("isbn");
-        double price = Double.parseDouble(request.getParameter("price"));
         
-        System.out.println("[OrderServlet] Executing: addToCart for customer " + customerId + ", ISBN: " + isbn);
+        log.info("Executing: addToCart for customer {}, ISBN: {}", customerId, isbn);
 
-        boolean success = orderDAO.addBookToCart(customerId, isbn, price);
+        if (cartStore.isEnabled()) {
+            // Write-behind: buffered now, written to the database later
+            if (cartStore.add(customerId, cartOrderId(session, customerId), isbn)) {
+                response.sendRedirect(request.getContextPath() + "/");
+            } else {
+                log.warn("Add to cart FAILED (out of stock).");
+                response.sendRedirect(request.getContextPath() + "/viewBook?isbn=" + isbn + "&error=stock");
+            }
+            return;
+        }
+
+        OrderDAO.CartUpdate result = orderDAO.addBookToCart(cartOrderId(session, customerId), isbn);
+        if (result == OrderDAO.CartUpdate.CART_CLOSED) {
+            // The cached cart was checked out (e.g. in another browser); use the current one
+            forgetCart(session);
+            result = orderDAO.addBookToCart(cartOrderId(session, customerId), isbn);
+        }
         
-        if (success) {
+        if (result == OrderDAO.CartUpdate.ADDED) {
             response.sendRedirect(request.getContextPath() + "/");
         } else {
-            System.out.println("[OrderServlet] Add to cart FAILED (out of stock).");
+            log.warn("Add to cart FAILED ({}).", result);
             response.sendRedirect(request.getContextPath() + "/viewBook?isbn=" + isbn + "&error=stock");
         }
     }
@@ -130,11 +200,20 @@ public class OrderServlet extends HttpServlet {
     private void removeFromCart(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
+        HttpSession session = request.getSession(false);
+        Integer customerId = session == null ? null : (Integer) session.getAttribute("customerId");
+
+        if (customerId == null) {
+            response.sendRedirect(request.getContextPath() + "/customer?action=showLogin");
+            return;
+        }
+        
         int orderItemId = Integer.parseInt(request.getParameter("id"));
         
-        System.out.println("[OrderServlet] Executing: removeFromCart for item " + orderItemId);
+        log.info("Executing: removeFromCart for item {}", orderItemId);
+        flushBufferedAdds(customerId);
 
-        orderDAO.removeItemFromCart(orderItemId);
+        orderDAO.removeItemFromCart(cartOrderId(session, customerId), orderItemId);
         
         response.sendRedirect(request.getContextPath() + "/cart?action=view");
     }
@@ -153,25 +232,85 @@ public class OrderServlet extends HttpServlet {
             return;
         }
         
-        System.out.println("[OrderServlet] Executing: checkout for customer " + customerId);
+        log.info("Executing: checkout for customer {}", customerId);
+        flushBufferedAdds(customerId);
         
         // Find the user's cart
-        Order cart = orderDAO.findOrCreateCart(customerId);
+        int orderId = cartOrderId(session, customerId);
         
-        // Attempt to place the order
-        boolean success = orderDAO.placeOrder(cart.getOrderId());
+        // Attempt to place the order (batched with other checkouts if group commit is on)
+        boolean success = checkoutPipeline.isEnabled()
+                ? checkoutPipeline.placeOrder(orderId)
+                : orderDAO.placeOrder(orderId);
         
         if (success) {
-            // Success! Show confirmation page.
-            System.out.println("[OrderServlet] Checkout SUCCESS");
-            request.setAttribute("orderId", cart.getOrderId());
+            // Success! Show confirmation page. The next cart request starts a new cart.
+            log.info("Checkout SUCCESS");
+            forgetCart(session);
+            request.setAttribute("orderId", orderId);
             RequestDispatcher dispatcher = request.getRequestDispatcher("order-confirmation.jsp");
             dispatcher.forward(request, response);
         } else {
             // Failure (e.g., out of stock)
-            System.out.println("[OrderServlet] Checkout FAILED");
+            log.warn("Checkout FAILED");
             // Redirect back to the cart with an error message
             response.sendRedirect(request.getContextPath() + "/cart?action=view&error=checkout_failed");
         }
     }
+
+    /**
+     * Shows one page of the customer's past orders, newest first.
+     */
+    private void listOrders(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        HttpSession session = request.getSession(false);
+        Integer customerId = session == null ? null : (Integer) session.getAttribute("customerId");
+
+        if (customerId == null) {
+            response.sendRedirect(request.getContextPath() + "/customer?action=showLogin");
+            return;
+        }
+
+        log.info("Executing: listOrders for customer {}", customerId);
+        Page<Order> page = orderDAO.listOrdersForCustomer(customerId,
+                request.getParameter("after"), request.getParameter("before"),
+                PageCursor.parsePageSize(request.getParameter("size"), DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+
+        request.setAttribute("orderList", page.getItems());
+        request.setAttribute("orderPage", page);
+        RequestDispatcher dispatcher = request.getRequestDispatcher("order-history.jsp");
+        dispatcher.forward(request, response);
+    }
+
+    // --- Cart identity ---
+
+    /**
+     * Returns the order ID of the customer's cart. It is looked up (or created)
+     * once and then cached in the session, so cart requests do not repeat the lookup.
+     * The cart operations check that the ID is still a pending cart of this customer;
+     * when it is not, the caller calls forgetCart() and asks again.
+     */
+    private int cartOrderId(HttpSession session, int customerId) {
+        Integer orderId = (Integer) session.getAttribute(CART_ORDER_ID);
+        if (orderId == null) {
+            Order cart = orderDAO.findOrCreateCart(customerId);
+            orderId = cart.getOrderId();
+            session.setAttribute(CART_ORDER_ID, orderId);
+        }
+        return orderId;
+    }
+
+    /**
+     * In write-behind mode, writes the customer's buffered adds before the cart is read or changed.
+     */
+    private void flushBufferedAdds(int customerId) {
+        if (cartStore.isEnabled()) {
+            cartStore.flush(customerId);
+        }
+    }
+
+    private void forgetCart(HttpSession session) {
+        session.removeAttribute(CART_ORDER_ID);
+    }
 }
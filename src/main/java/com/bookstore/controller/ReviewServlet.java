@@ -1,5 +1,6 @@
 package com.bookstore.controller;
 
+import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -9,6 +10,7 @@ import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
 
 import com.bookstore.dao.ReviewDAO;
+import com.bookstore.model.Page;
 import com.bookstore.model.Review;
 
 @WebServlet("/review")
@@ -20,6 +22,26 @@ public class ReviewServlet extends HttpServlet {
         reviewDAO = new ReviewDAO();
     }
 
+    /**
+     * Returns one more page of a book's reviews as an HTML fragment (review-page.jsp),
+     * for the "Load more reviews" button: /review?isbn=...&after=cursor
+     */
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        String isbn = request.getParameter("isbn");
+        if (isbn == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        Page<Review> reviewPage = reviewDAO.listReviewsPage(isbn, request.getParameter("after"));
+        request.setAttribute("reviewPage", reviewPage);
+        
+        RequestDispatcher dispatcher = request.getRequestDispatcher("review-page.jsp");
+        dispatcher.forward(request, response);
+    }
+
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
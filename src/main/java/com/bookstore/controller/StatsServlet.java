@@ -0,0 +1,145 @@
+package com.bookstore.controller;
+
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.bookstore.service.BookCache;
+import com.bookstore.service.BookSearchIndex;
+import com.bookstore.service.CartStore;
+import com.bookstore.service.CartSweeper;
+import com.bookstore.service.CheckoutPipeline;
+import com.bookstore.service.InventoryService;
+import com.bookstore.service.OrderArchiver;
+import com.bookstore.util.ConnectionPool;
+import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+
+/**
+ * Servlet controller for the admin "System Statistics" page.
+ * Shows the live counters of the connection pool and the other in-memory components.
+ */
+@WebServlet("/stats")
+public class StatsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final Log log = Log.getLog(StatsServlet.class);
+
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        // Admin only
+        HttpSession session = request.getSession(false);
+        if (session == null || !"admin".equals(session.getAttribute("userRole"))) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        log.info("Executing action: showStats");
+
+        // Section name -> (counter name -> value), in display order
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+
+        ConnectionPool pool = DatabaseConnection.getPool();
+        Map<String, Object> poolStats = new LinkedHashMap<>();
+        poolStats.put("Max size", pool.getMaxSize());
+        poolStats.put("Open connections", pool.getOpenCount());
+        poolStats.put("Idle connections", pool.getIdleCount());
+        poolStats.put("Connections created", pool.getCreatedCount());
+        poolStats.put("Borrows", pool.getBorrowCount());
+        poolStats.put("Borrow timeouts", pool.getTimeoutCount());
+        stats.put("Connection Pool", poolStats);
+
+        Map<String, Object> statementStats = new LinkedHashMap<>();
+        statementStats.put("Capacity per connection", pool.getStatementCacheSize());
+        statementStats.put("Hits", pool.getStatementCacheHits());
+        statementStats.put("Misses", pool.getStatementCacheMisses());
+        statementStats.put("Evictions", pool.getStatementCacheEvictions());
+        stats.put("Prepared Statement Cache", statementStats);
+
+        BookCache bookCache = BookCache.getInstance();
+        Map<String, Object> cacheStats = new LinkedHashMap<>();
+        cacheStats.put("Books cached", bookCache.getSize());
+        cacheStats.put("Max size", bookCache.getMaxSize());
+        cacheStats.put("TTL (seconds)", bookCache.getTtlSeconds());
+        cacheStats.put("Hits", bookCache.getHits());
+        cacheStats.put("Misses", bookCache.getMisses());
+        cacheStats.put("Evictions (size)", bookCache.getEvictions());
+        cacheStats.put("Expirations (TTL)", bookCache.getExpirations());
+        cacheStats.put("Invalidations", bookCache.getInvalidations());
+        stats.put("Book Cache", cacheStats);
+
+        BookSearchIndex searchIndex = BookSearchIndex.getInstance();
+        Map<String, Object> indexStats = new LinkedHashMap<>();
+        indexStats.put("Ready", searchIndex.isReady());
+        indexStats.put("Books indexed", searchIndex.getBookCount());
+        indexStats.put("Distinct tokens", searchIndex.getTokenCount());
+        stats.put("Search Index", indexStats);
+
+        InventoryService inventory = InventoryService.getInstance();
+        Map<String, Object> inventoryStats = new LinkedHashMap<>();
+        inventoryStats.put("Enabled", inventory.isEnabled());
+        inventoryStats.put("Books tracked", inventory.getTrackedBookCount());
+        inventoryStats.put("Carts holding reservations", inventory.getReservedCartCount());
+        inventoryStats.put("Reservations granted", inventory.getGrants());
+        inventoryStats.put("Reservations denied", inventory.getDenials());
+        inventoryStats.put("Reservations expired", inventory.getExpirations());
+        stats.put("Inventory Reservations", inventoryStats);
+
+        CheckoutPipeline checkoutPipeline = CheckoutPipeline.getInstance();
+        Map<String, Object> checkoutStats = new LinkedHashMap<>();
+        checkoutStats.put("Group commit enabled", checkoutPipeline.isEnabled());
+        checkoutStats.put("Checkouts queued", checkoutPipeline.getQueued());
+        checkoutStats.put("Transactions committed", checkoutPipeline.getBatches());
+        checkoutStats.put("Orders placed", checkoutPipeline.getOrdersPlaced());
+        checkoutStats.put("Orders failed", checkoutPipeline.getOrdersFailed());
+        checkoutStats.put("Placed directly (queue full)", checkoutPipeline.getQueueFull());
+        stats.put("Checkout Pipeline", checkoutStats);
+
+        CartStore cartStore = CartStore.getInstance();
+        Map<String, Object> cartStats = new LinkedHashMap<>();
+        cartStats.put("Write-behind enabled", cartStore.isEnabled());
+        cartStats.put("Carts with buffered adds", cartStore.getBufferedCartCount());
+        cartStats.put("Adds buffered", cartStore.getAdds());
+        cartStats.put("Flushes", cartStore.getFlushes());
+        cartStats.put("Cart lines written", cartStore.getLinesWritten());
+        cartStats.put("Cart lines dropped (out of stock)", cartStore.getLinesRejected());
+        stats.put("Write-behind Cart", cartStats);
+
+        CartSweeper sweeper = CartSweeper.getInstance();
+        Map<String, Object> sweepStats = new LinkedHashMap<>();
+        sweepStats.put("Max cart age (days)", sweeper.getMaxAgeDays());
+        sweepStats.put("Sweeps run", sweeper.getRuns());
+        sweepStats.put("Delete batches", sweeper.getBatches());
+        sweepStats.put("Carts deleted", sweeper.getCartsDeleted());
+        sweepStats.put("Carts deleted (last sweep)", sweeper.getLastRunDeleted());
+        sweepStats.put("Failed batches", sweeper.getErrors());
+        stats.put("Abandoned Carts", sweepStats);
+
+        OrderArchiver archiver = OrderArchiver.getInstance();
+        Map<String, Object> archiveStats = new LinkedHashMap<>();
+        archiveStats.put("Archive after (days)", archiver.getHorizonDays());
+        archiveStats.put("Archive runs", archiver.getRuns());
+        archiveStats.put("Archive batches", archiver.getBatches());
+        archiveStats.put("Orders archived", archiver.getOrdersArchived());
+        archiveStats.put("Orders archived (last run)", archiver.getLastRunArchived());
+        archiveStats.put("Failed batches", archiver.getErrors());
+        stats.put("Order Archive", archiveStats);
+
+        Map<String, Object> logStats = new LinkedHashMap<>();
+        logStats.put("Messages dropped (buffer full)", Log.getDroppedCount());
+        stats.put("Logging", logStats);
+
+        request.setAttribute("stats", stats);
+        RequestDispatcher dispatcher = request.getRequestDispatcher("stats.jsp");
+        dispatcher.forward(request, response);
+    }
+}
@@ -6,10 +6,18 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.bookstore.model.Author;
+import com.bookstore.model.Page;
+import com.bookstore.service.BookSearchIndex;
 import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+import com.bookstore.util.PageCursor;
 
 /**
  * DAO for Author and BookAuthors tables.
@@ -17,6 +25,13 @@ import com.bookstore.util.DatabaseConnection;
  */
 public class AuthorDAO {
 
+    private static final Log log = Log.getLog(AuthorDAO.class);
+
+    /** Number of bio characters loaded for the author directory. */
+    public static final int BIO_EXCERPT_LENGTH = 200;
+
+    private final BookSearchIndex searchIndex = BookSearchIndex.getInstance();
+
     // --- C.R.U.D. Methods for Authors Table ---
 
     /**
@@ -27,7 +42,7 @@ public class AuthorDAO {
      */
     public int addAuthor(Author author) {
         String sql = "INSERT INTO Authors (author_name, bio) VALUES (?, ?)";
-        System.out.println("[AuthorDAO] Adding new author: " + author.getAuthorName());
+        log.info("Adding new author: {}", author.getAuthorName());
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -42,45 +57,110 @@ public class AuthorDAO {
                 try (ResultSet rs = pstmt.getGeneratedKeys()) {
                     if (rs.next()) {
                         int generatedId = rs.getInt(1);
-                        System.out.println("[AuthorDAO] Author added with ID: " + generatedId);
+                        searchIndex.putAuthor(generatedId, author.getAuthorName());
+                        log.info("Author added with ID: {}", generatedId);
                         return generatedId;
                     }
                 }
             }
         } catch (SQLException e) {
-            System.err.println("SQL Error in addAuthor(): " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in addAuthor(): {}", e.getMessage(), e);
         }
         return -1; // Return -1 on failure
     }
 
     /**
-     * Fetches all authors from the Authors table.
-     * @return A list of all Author objects.
+     * Fetches one page of the author directory, ordered by (author_name, author_id),
+     * together with the number of books of each author.
+     *
+     * Uses keyset pagination like BookDAO.listBooksPage: idx_authors_name (which InnoDB
+     * extends with the primary key) serves the page, and only the authors on the page
+     * are joined with BookAuthors (idx_bookauthors_author) to count their books.
+     * The bio is cut down to BIO_EXCERPT_LENGTH characters in the query, so the full
+     * TEXT column is never sent for a listing.
+     *
+     * @param after  Cursor of the last row of the previous page (for "Next"), or null.
+     * @param before Cursor of the first row of the following page (for "Prev"), or null.
+     *               Ignored if 'after' is given.
+     * @param pageSize Maximum number of authors on the page.
      */
-    public List<Author> listAllAuthors() {
-        List<Author> authorList = new ArrayList<>();
-        String sql = "SELECT * FROM Authors";
-        System.out.println("[AuthorDAO] Listing all authors");
-        
+    public Page<Author> listAuthorsPage(String after, String before, int pageSize) {
+        String[] afterKey = PageCursor.decode(after, 2);
+        String[] beforeKey = afterKey == null ? PageCursor.decode(before, 2) : null;
+        boolean backwards = beforeKey != null;
+
+        String where = "";
+        String direction = "";
+        if (afterKey != null) {
+            where = "WHERE author_name > ? OR (author_name = ? AND author_id > ?) ";
+        } else if (backwards) {
+            where = "WHERE author_name < ? OR (author_name = ? AND author_id < ?) ";
+            direction = " DESC";
+        }
+        // The inner query picks the page, the outer one counts books for just those authors.
+        String sql = "SELECT a.author_id, a.author_name, a.bio_excerpt, COUNT(ba.ISBN) AS book_count " +
+                     "FROM (SELECT author_id, author_name, LEFT(bio, " + BIO_EXCERPT_LENGTH + ") AS bio_excerpt " +
+                     "      FROM Authors " + where +
+                     "      ORDER BY author_name" + direction + ", author_id" + direction + " LIMIT ?) a " +
+                     "LEFT JOIN BookAuthors ba ON ba.author_id = a.author_id " +
+                     "GROUP BY a.author_id, a.author_name, a.bio_excerpt " +
+                     "ORDER BY a.author_name" + direction + ", a.author_id" + direction;
+        log.info("Listing authors page");
+
+        List<Author> authorList = new ArrayList<>(pageSize + 1);
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            while (rs.next()) {
-                Author author = new Author(
-                    rs.getInt("author_id"),
-                    rs.getString("author_name"),
-                    rs.getString("bio")
-                );
-                authorList.add(author);
+            int index = 1;
+            String[] key = backwards ? beforeKey : afterKey;
+            if (key != null) {
+                pstmt.setString(index++, key[0]);
+                pstmt.setString(index++, key[0]);
+                pstmt.setInt(index++, Integer.parseInt(key[1]));
             }
-        } catch (SQLException e) {
-            System.err.println("SQL Error in listAllAuthors(): " + e.getMessage());
-            e.printStackTrace();
+            pstmt.setInt(index, pageSize + 1); // one extra row tells us whether there is more
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Author author = new Author(
+                        rs.getInt("author_id"),
+                        rs.getString("author_name"),
+                        rs.getString("bio_excerpt")
+                    );
+                    author.setBookCount(rs.getInt("book_count"));
+                    authorList.add(author);
+                }
+            }
+        } catch (SQLException | NumberFormatException e) {
+            log.error("SQL Error in listAuthorsPage(): {}", e.getMessage(), e);
         }
-        System.out.println("[AuthorDAO] Found " + authorList.size() + " authors.");
-        return authorList;
+
+        boolean hasMore = authorList.size() > pageSize;
+        if (hasMore) {
+            authorList.remove(authorList.size() - 1);
+        }
+        if (backwards) {
+            Collections.reverse(authorList); // we read the rows in descending order
+        }
+
+        boolean hasNext = backwards || hasMore;
+        boolean hasPrev = backwards ? hasMore : afterKey != null;
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!authorList.isEmpty()) {
+            Author first = authorList.get(0);
+            Author last = authorList.get(authorList.size() - 1);
+            if (hasNext) {
+                nextCursor = PageCursor.encode(last.getAuthorName(), String.valueOf(last.getAuthorId()));
+            }
+            if (hasPrev) {
+                prevCursor = PageCursor.encode(first.getAuthorName(), String.valueOf(first.getAuthorId()));
+            }
+        }
+
+        log.info("Found {} authors.", authorList.size());
+        return new Page<>(authorList, pageSize, nextCursor, prevCursor);
     }
     
     /**
@@ -90,7 +170,7 @@ public class AuthorDAO {
      */
     public Author findAuthorById(int authorId) {
         String sql = "SELECT * FROM Authors WHERE author_id = ?";
-        System.out.println("[AuthorDAO] Finding author by ID: " + authorId);
+        log.debug("Finding author by ID: {}", authorId);
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -107,19 +187,19 @@ public class AuthorDAO {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("SQL Error in findAuthorById(): " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in findAuthorById(): {}", e.getMessage(), e);
         }
         return null;
     }
 
     /**
      * Checks if an author is associated with any books.
+     * Served by idx_bookauthors_author.
      * @param authorId The author's ID.
      * @return true if the author has books, false otherwise.
      */
     public boolean hasBooks(int authorId) {
-        String sql = "SELECT COUNT(*) FROM BookAuthors WHERE author_id = ?";
+        String sql = "SELECT EXISTS (SELECT 1 FROM BookAuthors WHERE author_id = ?)";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
@@ -130,8 +210,7 @@ public class AuthorDAO {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("SQL Error in hasBooks(): " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in hasBooks(): {}", e.getMessage(), e);
         }
         return false;
     }
@@ -143,7 +222,7 @@ public class AuthorDAO {
      */
     public boolean updateAuthor(Author author) {
         String sql = "UPDATE Authors SET author_name = ?, bio = ? WHERE author_id = ?";
-        System.out.println("[AuthorDAO] Updating author ID: " + author.getAuthorId());
+        log.info("Updating author ID: {}", author.getAuthorId());
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -153,11 +232,13 @@ public class AuthorDAO {
             pstmt.setInt(3, author.getAuthorId());
             
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                searchIndex.putAuthor(author.getAuthorId(), author.getAuthorName());
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            System.err.println("SQL Error in updateAuthor(): " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in updateAuthor(): {}", e.getMessage(), e);
             return false;
         }
     }
@@ -172,7 +253,7 @@ public class AuthorDAO {
     public boolean deleteAuthor(int authorId) {
         String deleteLinksSQL = "DELETE FROM BookAuthors WHERE author_id = ?";
         String deleteAuthorSQL = "DELETE FROM Authors WHERE author_id = ?";
-        System.out.println("[AuthorDAO] Deleting author ID: " + authorId);
+        log.info("Deleting author ID: {}", authorId);
         
         Connection conn = null;
         try {
@@ -183,7 +264,7 @@ public class AuthorDAO {
             try (PreparedStatement pstmtLinks = conn.prepareStatement(deleteLinksSQL)) {
                 pstmtLinks.setInt(1, authorId);
                 pstmtLinks.executeUpdate();
-                System.out.println("[AuthorDAO] Deleted author links from BookAuthors.");
+                log.debug("Deleted author links from BookAuthors.");
             }
             
             // 2. Delete author from main table
@@ -193,7 +274,8 @@ public class AuthorDAO {
                 
                 if (rowsAffected > 0) {
                     conn.commit(); // Commit transaction
-                    System.out.println("[AuthorDAO] Successfully deleted author.");
+                    searchIndex.removeAuthor(authorId);
+                    log.info("Successfully deleted author.");
                     return true;
                 } else {
                     conn.rollback(); // Rollback if author deletion failed
@@ -202,13 +284,12 @@ public class AuthorDAO {
             }
 
         } catch (SQLException e) {
-            System.err.println("SQL Error in deleteAuthor() transaction: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in deleteAuthor() transaction: {}", e.getMessage(), e);
             if (conn != null) {
                 try {
                     conn.rollback(); // Rollback on error
                 } catch (SQLException se) {
-                    se.printStackTrace();
+                    log.error("Rollback failed for author {}", authorId, se);
                 }
             }
             return false;
@@ -218,7 +299,7 @@ public class AuthorDAO {
                     conn.setAutoCommit(true); // Restore default
                     conn.close();
                 } catch (SQLException e) {
-                    e.printStackTrace();
+                    log.error("Could not release connection after deleting author {}", authorId, e);
                 }
             }
         }
@@ -253,12 +334,64 @@ public class AuthorDAO {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("SQL Error in getAuthorsForBook(): " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in getAuthorsForBook(): {}", e.getMessage(), e);
         }
         return authorList;
     }
 
+    /**
+     * Gets the authors of many books at once, with one query per
+     * SqlLists.MAX_IN_LIST ISBNs instead of one query per book.
+     * Only the ID and name are loaded (the listings show names); bio is null.
+     * @param isbns The books' ISBNs.
+     * @return ISBN -> authors (ordered by author ID), in the caller's order.
+     *         Every requested ISBN is present; books without authors map to an empty list.
+     */
+    public Map<String, List<Author>> getAuthorsForBooks(Collection<String> isbns) {
+        Map<String, List<Author>> authorsByIsbn = new LinkedHashMap<>();
+        for (String isbn : isbns) {
+            if (isbn != null) {
+                authorsByIsbn.putIfAbsent(isbn, new ArrayList<>());
+            }
+        }
+        if (authorsByIsbn.isEmpty()) {
+            return authorsByIsbn;
+        }
+
+        List<String> toLoad = new ArrayList<>(authorsByIsbn.keySet());
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<String> chunk : SqlLists.chunks(toLoad, SqlLists.MAX_IN_LIST)) {
+                List<String> values = SqlLists.padded(chunk);
+                String sql = "SELECT ba.ISBN, a.author_id, a.author_name FROM BookAuthors ba " +
+                             "JOIN Authors a ON a.author_id = ba.author_id " +
+                             "WHERE ba.ISBN IN (" + SqlLists.placeholders(values.size()) + ") " +
+                             "ORDER BY ba.ISBN, a.author_id";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    for (String isbn : values) {
+                        pstmt.setString(index++, isbn);
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Author author = new Author(
+                                rs.getInt("author_id"),
+                                rs.getString("author_name"),
+                                null // bio: not shown in listings
+                            );
+                            List<Author> authors = authorsByIsbn.get(rs.getString("ISBN"));
+                            if (authors != null) { // null if the ISBN only matched case-insensitively
+                                authors.add(author);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.error("SQL Error in getAuthorsForBooks(): {}", e.getMessage(), e);
+        }
+        return authorsByIsbn;
+    }
+
     /**
      * Links an author to a book in the BookAuthors table.
      * @param isbn The book's ISBN.
@@ -267,7 +400,7 @@ public class AuthorDAO {
      */
     public boolean linkAuthorToBook(String isbn, int authorId) {
         String sql = "INSERT INTO BookAuthors (ISBN, author_id) VALUES (?, ?)";
-        System.out.println("[AuthorDAO] Linking author " + authorId + " to book " + isbn);
+        log.info("Linking author {} to book {}", authorId, isbn);
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -276,10 +409,13 @@ public class AuthorDAO {
             pstmt.setInt(2, authorId);
             
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                searchIndex.linkAuthor(isbn, authorId);
+            }
             return rowsAffected > 0;
             
         } catch (SQLException e) {
-            System.err.println("SQL Error in linkAuthorToBook(): " + e.getMessage());
+            log.warn("SQL Error in linkAuthorToBook(): {}", e.getMessage());
             // It might fail if the link already exists, which is fine.
             return false;
         }
@@ -293,7 +429,7 @@ public class AuthorDAO {
      */
     public boolean unlinkAuthorFromBook(String isbn, int authorId) {
         String sql = "DELETE FROM BookAuthors WHERE ISBN = ? AND author_id = ?";
-        System.out.println("[AuthorDAO] Unlinking author " + authorId + " from book " + isbn);
+        log.info("Unlinking author {} from book {}", authorId, isbn);
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -302,11 +438,13 @@ public class AuthorDAO {
             pstmt.setInt(2, authorId);
             
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                searchIndex.unlinkAuthor(isbn, authorId);
+            }
             return rowsAffected > 0;
             
         } catch (SQLException e) {
-            System.err.println("SQL Error in unlinkAuthorFromBook(): " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in unlinkAuthorFromBook(): {}", e.getMessage(), e);
             return false;
         }
     }
@@ -6,51 +6,144 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.bookstore.model.Book;
+import com.bookstore.model.Page;
+import com.bookstore.service.BookCache;
+import com.bookstore.service.BookSearchIndex;
+import com.bookstore.service.InventoryService;
 import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+import com.bookstore.util.PageCursor;
 
 /**
  * DAO for the 'Books' table.
  */
 public class BookDAO {
 
+    private static final Log log = Log.getLog(BookDAO.class);
+
+    private final BookSearchIndex searchIndex = BookSearchIndex.getInstance();
+    private final BookCache bookCache = BookCache.getInstance();
+    private final InventoryService inventory = InventoryService.getInstance();
+
     /**
-     * Retrieves a list of all books from the database.
+     * Retrieves one page of the catalog, sorted by title (then ISBN).
+     *
+     * Uses keyset pagination instead of OFFSET: the page starts right after (or before)
+     * the boundary row named by the cursor, so MySQL walks idx_books_title from that
+     * point and reads only pageSize + 1 rows, no matter how deep into the catalog we are.
+     * (InnoDB appends the primary key to every secondary index, so idx_books_title
+     * is really (title, ISBN) and covers the tie-breaker too.)
+     *
+     * @param after  Cursor of the last row of the previous page (for "Next"), or null.
+     * @param before Cursor of the first row of the following page (for "Prev"), or null.
+     *               Ignored if 'after' is given.
+     * @param pageSize Maximum number of books on the page.
      */
-    public List<Book> listAllBooks() {
-        List<Book> bookList = new ArrayList<>();
-        String sql = "SELECT * FROM Books";
-        System.out.println("[BookDAO] Attempting to connect and run query: " + sql);
+    public Page<Book> listBooksPage(String after, String before, int pageSize) {
+        String[] afterKey = PageCursor.decode(after, 2);
+        String[] beforeKey = afterKey == null ? PageCursor.decode(before, 2) : null;
+        boolean backwards = beforeKey != null;
+
+        String sql;
+        if (afterKey != null) {
+            sql = "SELECT isbn, title, price, quantity_in_stock FROM Books " +
+                  "WHERE title > ? OR (title = ? AND isbn > ?) " +
+                  "ORDER BY title, isbn LIMIT ?";
+        } else if (backwards) {
+            sql = "SELECT isbn, title, price, quantity_in_stock FROM Books " +
+                  "WHERE title < ? OR (title = ? AND isbn < ?) " +
+                  "ORDER BY title DESC, isbn DESC LIMIT ?";
+        } else {
+            sql = "SELECT isbn, title, price, quantity_in_stock FROM Books " +
+                  "ORDER BY title, isbn LIMIT ?";
+        }
+        log.debug("Running query: {}", sql);
 
+        List<Book> bookList = new ArrayList<>(pageSize + 1);
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Book book = new Book();
-                book.setIsbn(rs.getString("isbn"));
-                book.setTitle(rs.getString("title"));
-                book.setPrice(rs.getDouble("price"));
-                book.setQuantityInStock(rs.getInt("quantity_in_stock"));
-                bookList.add(book);
-                System.out.println("[BookDAO] ---> Found book: " + book.getTitle());
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            String[] key = backwards ? beforeKey : afterKey;
+            if (key != null) {
+                stmt.setString(index++, key[0]);
+                stmt.setString(index++, key[0]);
+                stmt.setString(index++, key[1]);
+            }
+            stmt.setInt(index, pageSize + 1); // one extra row tells us whether there is more
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Book book = new Book();
+                    book.setIsbn(rs.getString("isbn"));
+                    book.setTitle(rs.getString("title"));
+                    book.setPrice(rs.getDouble("price"));
+                    book.setQuantityInStock(rs.getInt("quantity_in_stock"));
+                    bookList.add(book);
+                    log.debug("---> Found book: {}", book.getTitle());
+                }
             }
 
         } catch (SQLException e) {
-            System.err.println("[BookDAO] SQL Error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error: {}", e.getMessage(), e);
         }
-        System.out.println("[BookDAO] Query complete. Found " + bookList.size() + " books.");
-        return bookList;
+
+        boolean hasMore = bookList.size() > pageSize;
+        if (hasMore) {
+            bookList.remove(bookList.size() - 1);
+        }
+        if (backwards) {
+            Collections.reverse(bookList); // we read the rows in descending order
+        }
+
+        // Going forward, there is a previous page if we started from a cursor;
+        // going backwards, there is a next page (the one we came from).
+        boolean hasNext = backwards || hasMore;
+        boolean hasPrev = backwards ? hasMore : afterKey != null;
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!bookList.isEmpty()) {
+            Book first = bookList.get(0);
+            Book last = bookList.get(bookList.size() - 1);
+            if (hasNext) {
+                nextCursor = PageCursor.encode(last.getTitle(), last.getIsbn());
+            }
+            if (hasPrev) {
+                prevCursor = PageCursor.encode(first.getTitle(), first.getIsbn());
+            }
+        }
+
+        log.info("Query complete. Found {} books.", bookList.size());
+        return new Page<>(bookList, pageSize, nextCursor, prevCursor);
     }
 
     /**
-     * *** UPDATED METHOD ***
      * Searches for books where the title, ISBN, OR AUTHOR NAME matches the query.
+     * Answered from the in-memory BookSearchIndex; the SQL search below is only
+     * used while the index is still being built (or could not be built).
      */
     public List<Book> searchBooks(String query) {
+        if (searchIndex.isReady()) {
+            List<Book> bookList = searchIndex.search(query);
+            log.info("Index search for '{}' found {} books.", query, bookList.size());
+            return bookList;
+        }
+        return searchBooksInDatabase(query);
+    }
+
+    /**
+     * *** UPDATED METHOD ***
+     * Searches for books where the title, ISBN, OR AUTHOR NAME matches the query.
+     */
+    private List<Book> searchBooksInDatabase(String query) {
         List<Book> bookList = new ArrayList<>();
         // Use DISTINCT to avoid duplicate books if multiple authors match
         String sql = "SELECT DISTINCT b.* FROM Books b " +
@@ -60,7 +153,7 @@ public class BookDAO {
         
         String searchQuery = "%" + query + "%";
         
-        System.out.println("[BookDAO] Attempting to search for: " + query);
+        log.info("Attempting to search for: {}", query);
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -77,15 +170,14 @@ public class BookDAO {
                     book.setPrice(rs.getDouble("price"));
                     book.setQuantityInStock(rs.getInt("quantity_in_stock"));
                     bookList.add(book);
-                    System.out.println("[BookDAO] ---> Found match: " + book.getTitle());
+                    log.debug("---> Found match: {}", book.getTitle());
                 }
             }
 
         } catch (SQLException e) {
-            System.err.println("[BookDAO] SQL Error during search: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error during search: {}", e.getMessage(), e);
         }
-        System.out.println("[BookDAO] Search complete. Found " + bookList.size() + " books.");
+        log.info("Search complete. Found {} books.", bookList.size());
         return bookList;
     }
 
@@ -95,7 +187,7 @@ public class BookDAO {
      */
     public void addBook(Book book) {
         String sql = "INSERT INTO Books (isbn, title, price, quantity_in_stock) VALUES (?, ?, ?, ?)";
-        System.out.println("[BookDAO] Executing: " + sql);
+        log.debug("Executing: {}", sql);
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -106,21 +198,27 @@ public class BookDAO {
             stmt.setInt(4, book.getQuantityInStock());
             
             stmt.executeUpdate();
-            System.out.println("[BookDAO] New book added successfully.");
+            searchIndex.putBook(book);
+            log.info("New book added successfully.");
 
         } catch (SQLException e) {
-            System.err.println("[BookDAO] SQL Error adding book: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error adding book: {}", e.getMessage(), e);
         }
     }
 
     /**
      * Retrieves a single book by its ISBN.
+     * Served from the BookCache when possible; a miss loads the book and caches it.
      */
     public Book findBookByIsbn(String isbn) {
-        Book book = null;
+        Book book = bookCache.get(isbn);
+        if (book != null) {
+            log.debug("Cache hit for ISBN: {}", isbn);
+            return book;
+        }
+        long loadStartedAt = bookCache.startLoad();
         String sql = "SELECT * FROM Books WHERE isbn = ?";
-        System.out.println("[BookDAO] Finding book by ISBN: " + isbn);
+        log.debug("Finding book by ISBN: {}", isbn);
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -134,22 +232,84 @@ public class BookDAO {
                     book.setTitle(rs.getString("title"));
                     book.setPrice(rs.getDouble("price"));
                     book.setQuantityInStock(rs.getInt("quantity_in_stock"));
-                    System.out.println("[BookDAO] Found book: " + book.getTitle());
+                    log.debug("Found book: {}", book.getTitle());
                 }
             }
         } catch (SQLException e) {
-            System.err.println("[BookDAO] SQL Error finding book: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error finding book: {}", e.getMessage(), e);
         }
+        bookCache.put(book, loadStartedAt);
         return book;
     }
     
+    /**
+     * Retrieves many books at once, in as few round trips as possible.
+     *
+     * Books already in the BookCache are taken from there; the rest are loaded with
+     * "WHERE isbn IN (...)" queries of up to SqlLists.MAX_IN_LIST ISBNs each,
+     * all on one connection. Use this instead of calling findBookByIsbn in a loop.
+     *
+     * @param isbns The ISBNs to look up (duplicates and nulls are ignored).
+     * @return ISBN -> Book, in the order of the given ISBNs. ISBNs that do not exist are missing.
+     */
+    public Map<String, Book> findBooksByIsbns(Collection<String> isbns) {
+        Map<String, Book> found = new LinkedHashMap<>();
+        List<String> toLoad = new ArrayList<>();
+        for (String isbn : isbns) {
+            if (isbn == null || found.containsKey(isbn)) {
+                continue;
+            }
+            Book cached = bookCache.get(isbn);
+            found.put(isbn, cached); // placeholder keeps the caller's order
+            if (cached == null) {
+                toLoad.add(isbn);
+            }
+        }
+        if (toLoad.isEmpty()) {
+            return found;
+        }
+
+        long loadStartedAt = bookCache.startLoad();
+        log.debug("Loading {} books in {} queries", toLoad.size(),
+                (toLoad.size() + SqlLists.MAX_IN_LIST - 1) / SqlLists.MAX_IN_LIST);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<String> chunk : SqlLists.chunks(toLoad, SqlLists.MAX_IN_LIST)) {
+                List<String> values = SqlLists.padded(chunk);
+                String sql = "SELECT isbn, title, price, quantity_in_stock FROM Books WHERE isbn IN (" +
+                             SqlLists.placeholders(values.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    for (String isbn : values) {
+                        stmt.setString(index++, isbn);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Book book = new Book();
+                            book.setIsbn(rs.getString("isbn"));
+                            book.setTitle(rs.getString("title"));
+                            book.setPrice(rs.getDouble("price"));
+                            book.setQuantityInStock(rs.getInt("quantity_in_stock"));
+                            found.put(book.getIsbn(), book);
+                            bookCache.put(book, loadStartedAt);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.error("SQL Error finding books by ISBN: {}", e.getMessage(), e);
+        }
+
+        found.values().removeIf(book -> book == null); // ISBNs that do not exist
+        return found;
+    }
+    
     /**
      * Updates an existing book's details in the database.
      */
     public void updateBook(Book book) {
         String sql = "UPDATE Books SET title = ?, price = ?, quantity_in_stock = ? WHERE isbn = ?";
-        System.out.println("[BookDAO] Executing update for ISBN: " + book.getIsbn());
+        log.info("Executing update for ISBN: {}", book.getIsbn());
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -159,62 +319,75 @@ public class BookDAO {
             stmt.setInt(3, book.getQuantityInStock());
             stmt.setString(4, book.getIsbn());
             
-            stmt.executeUpdate();
-            System.out.println("[BookDAO] Book updated successfully.");
+            if (stmt.executeUpdate() > 0) {
+                bookCache.invalidate(book.getIsbn());
+                inventory.invalidate(book.getIsbn());
+                searchIndex.putBook(book);
+            }
+            log.info("Book updated successfully.");
 
         } catch (SQLException e) {
-            System.err.println("[BookDAO] SQL Error updating book: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error updating book: {}", e.getMessage(), e);
         }
     }
     
     /**
      * Deletes a book from the database by its ISBN.
-     * Note: This will fail if the book is part of an order (foreign key constraint).
-     * We should add logic to handle this, e.g., by deleting from OrderItems first.
+     * The book is first taken out of every cart ("Pending" order), and its lines
+     * are subtracted from those carts' totals, which are maintained by deltas.
      */
     public void deleteBook(String isbn) {
-        // First, we must delete this book from any "Pending" order items
+        // First, we must take this book out of any "Pending" order, total first
+        String adjustTotalsSql = "UPDATE Orders o JOIN OrderItems oi ON oi.order_id = o.order_id " +
+                                 "SET o.total_amount = o.total_amount - oi.quantity * oi.price_at_purchase " +
+                                 "WHERE oi.isbn = ? AND o.status = 'Pending'";
         String deleteOrderItemsSql = "DELETE FROM OrderItems WHERE isbn = ? AND order_id IN (SELECT order_id FROM Orders WHERE status = 'Pending')";
         String deleteBookSql = "DELETE FROM Books WHERE isbn = ?";
         
-        System.out.println("[BookDAO] Attempting to delete book: " + isbn);
+        log.info("Attempting to delete book: {}", isbn);
 
         try (Connection conn = DatabaseConnection.getConnection()) {
             // Start a transaction
             conn.setAutoCommit(false);
             
             try {
-                // 1. Delete from pending cart items
+                // 1. Take the book's lines off the cart totals (one line per cart and book)
+                try (PreparedStatement adjustStmt = conn.prepareStatement(adjustTotalsSql)) {
+                    adjustStmt.setString(1, isbn);
+                    adjustStmt.executeUpdate();
+                }
+
+                // 2. Delete from pending cart items
                 try (PreparedStatement stmt1 = conn.prepareStatement(deleteOrderItemsSql)) {
                     stmt1.setString(1, isbn);
                     int itemsRemoved = stmt1.executeUpdate();
-                    System.out.println("[BookDAO] Removed " + itemsRemoved + " items from pending carts.");
+                    log.info("Removed {} items from pending carts.", itemsRemoved);
                 }
                 
-                // 2. Delete the book itself
+                // 3. Delete the book itself
                 try (PreparedStatement stmt2 = conn.prepareStatement(deleteBookSql)) {
                     stmt2.setString(1, isbn);
                     stmt2.executeUpdate();
-                    System.out.println("[BookDAO] Book deleted successfully.");
+                    log.info("Book deleted successfully.");
                 }
                 
                 // If both steps succeeded, commit the transaction
                 conn.commit();
+                bookCache.invalidate(isbn);
+                inventory.invalidate(isbn);
+                searchIndex.removeBook(isbn);
                 
             } catch (SQLException e) {
                 // If anything fails, roll back
                 conn.rollback();
-                System.err.println("[BookDAO] TRANSACTION FAILED. Rolling back. Error: " + e.getMessage());
-                e.printStackTrace();
+                log.error("TRANSACTION FAILED. Rolling back. Error: {}", e.getMessage(), e);
             } finally {
                 // Always set auto-commit back to true
                 conn.setAutoCommit(true);
             }
 
         } catch (SQLException e) {
-            System.err.println("[BookDAO] SQL Error deleting book: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error deleting book: {}", e.getMessage(), e);
         }
     }
 }
\ No newline at end of file
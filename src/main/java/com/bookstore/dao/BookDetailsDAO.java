@@ -0,0 +1,118 @@
+package com.bookstore.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.bookstore.model.Author;
+import com.bookstore.model.Book;
+import com.bookstore.model.BookDetails;
+import com.bookstore.model.Page;
+import com.bookstore.model.RatingSummary;
+import com.bookstore.model.Review;
+import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+
+/**
+ * Read-only DAO that loads the whole book details page in two round trips,
+ * instead of one query (and connection) per piece of the page.
+ */
+public class BookDetailsDAO {
+
+    private static final Log log = Log.getLog(BookDetailsDAO.class);
+
+    /**
+     * Loads the book details page.
+     *
+     * Round trip 1: the book, one row per author (LEFT JOIN), its BookRatings
+     *               aggregate (LEFT JOIN), and the viewer's own review (LEFT JOIN).
+     * Round trip 2: the first page of reviews (see ReviewDAO.listReviewsPage);
+     *               the page loads the rest on demand from /review.
+     *
+     * @param isbn The book's ISBN.
+     * @param viewerCustomerId The logged-in customer, or null for guests.
+     * @return The details, or null if the book does not exist (or on a database error).
+     */
+    public BookDetails findBookDetails(String isbn, Integer viewerCustomerId) {
+        String detailsSql =
+            "SELECT b.isbn, b.title, b.price, b.quantity_in_stock, " +
+            "       COALESCE(br.review_count, 0) AS review_count, COALESCE(br.rating_sum, 0) AS rating_sum, " +
+            "       COALESCE(br.stars_1, 0) AS stars_1, COALESCE(br.stars_2, 0) AS stars_2, " +
+            "       COALESCE(br.stars_3, 0) AS stars_3, COALESCE(br.stars_4, 0) AS stars_4, " +
+            "       COALESCE(br.stars_5, 0) AS stars_5, " +
+            "       a.author_id, a.author_name, a.bio, " +
+            "       my.review_id, my.rating, my.review_text, my.review_date " +
+            "FROM Books b " +
+            "LEFT JOIN BookRatings br ON br.ISBN = b.isbn " +
+            "LEFT JOIN BookAuthors ba ON ba.ISBN = b.isbn " +
+            "LEFT JOIN Authors a ON a.author_id = ba.author_id " +
+            "LEFT JOIN Reviews my ON my.isbn = b.isbn AND my.customer_id = ? " +
+            "WHERE b.isbn = ?";
+
+        BookDetails details = null;
+        log.debug("Loading details for ISBN: {}", isbn);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+
+            // 1. Book, authors, rating stats and the viewer's review
+            try (PreparedStatement pstmt = conn.prepareStatement(detailsSql)) {
+                pstmt.setInt(1, viewerCustomerId == null ? -1 : viewerCustomerId);
+                pstmt.setString(2, isbn);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    Map<Integer, Author> authors = new LinkedHashMap<>();
+                    while (rs.next()) {
+                        if (details == null) {
+                            details = new BookDetails();
+                            details.setBook(new Book(
+                                rs.getString("isbn"),
+                                rs.getString("title"),
+                                rs.getDouble("price"),
+                                rs.getInt("quantity_in_stock")
+                            ));
+                            RatingSummary ratings = ReviewDAO.mapResultSetToRatingSummary(rs);
+                            details.setRatingSummary(ratings);
+                            details.setReviewCount(ratings.getReviewCount());
+                            details.setAverageRating(ratings.getAverageRating());
+                        }
+                        int authorId = rs.getInt("author_id");
+                        if (!rs.wasNull() && !authors.containsKey(authorId)) {
+                            authors.put(authorId, new Author(authorId, rs.getString("author_name"), rs.getString("bio")));
+                        }
+                        int reviewId = rs.getInt("review_id");
+                        if (!rs.wasNull() && details.getUserReview() == null) {
+                            Review review = new Review();
+                            review.setReviewId(reviewId);
+                            review.setIsbn(isbn);
+                            review.setCustomerId(viewerCustomerId);
+                            review.setRating(rs.getInt("rating"));
+                            review.setReviewText(rs.getString("review_text"));
+                            review.setReviewDate(rs.getTimestamp("review_date"));
+                            details.setUserReview(review);
+                        }
+                    }
+                    if (details == null) {
+                        log.info("No book found for ISBN: {}", isbn);
+                        return null;
+                    }
+                    details.getAuthors().addAll(authors.values());
+                }
+            }
+
+            // 2. First page of reviews (skipped when we already know there are none)
+            if (details.getReviewCount() > 0) {
+                Page<Review> firstPage = ReviewDAO.readReviewsPage(conn, isbn, null);
+                details.setReviews(firstPage.getItems());
+                details.setReviewsNextCursor(firstPage.getNextCursor());
+            }
+
+        } catch (SQLException e) {
+            log.error("SQL Error in findBookDetails(): {}", e.getMessage(), e);
+            return null;
+        }
+        return details;
+    }
+}
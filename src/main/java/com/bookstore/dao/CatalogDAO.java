@@ -0,0 +1,221 @@
+package com.bookstore.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.CatalogEntry;
+import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+
+/**
+ * DAO for bulk catalog operations (import/export) across Books, Authors and BookAuthors.
+ * Unlike BookDAO/AuthorDAO, these methods work on many rows per statement.
+ */
+public class CatalogDAO {
+
+    private static final Log log = Log.getLog(CatalogDAO.class);
+
+    /** Rows fetched from the server per round trip while exporting. */
+    static final int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Loads every author name with its ID, so an import can resolve names without a query per row.
+     * If two authors share a name, the one with the lowest ID wins.
+     * @return author_name -> author_id, or null on failure.
+     */
+    public Map<String, Integer> loadAuthorIds() {
+        String sql = "SELECT author_id, author_name FROM Authors ORDER BY author_id";
+        Map<String, Integer> authorIds = new HashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                authorIds.putIfAbsent(rs.getString("author_name"), rs.getInt("author_id"));
+            }
+        } catch (SQLException e) {
+            log.error("SQL Error in loadAuthorIds(): {}", e.getMessage(), e);
+            return null;
+        }
+        log.info("Loaded {} author names.", authorIds.size());
+        return authorIds;
+    }
+
+    /**
+     * Saves one chunk of imported books in a single transaction, using JDBC batches:
+     * 1. Inserts the authors that do not exist yet (and adds their new IDs to authorIds).
+     * 2. Inserts the books, or updates title/price/stock if the ISBN already exists.
+     * 3. Links the books to their authors (existing links are left alone).
+     *
+     * With rewriteBatchedStatements=true in the JDBC URL, each batch is sent as
+     * one multi-row statement, so a chunk costs a handful of round trips.
+     *
+     * @param books The books to save.
+     * @param authorNames ISBN -> author names of that book.
+     * @param authorIds Known author_name -> author_id. Only updated if the chunk commits.
+     * @return The number of authors created, or -1 if the chunk failed and was rolled back.
+     */
+    public int saveChunk(List<Book> books, Map<String, List<String>> authorNames, Map<String, Integer> authorIds) {
+        String insertAuthorSql = "INSERT INTO Authors (author_name, bio) VALUES (?, '')";
+        String upsertBookSql = "INSERT INTO Books (isbn, title, price, quantity_in_stock) VALUES (?, ?, ?, ?) AS imported " +
+                               "ON DUPLICATE KEY UPDATE title = imported.title, price = imported.price, " +
+                               "quantity_in_stock = imported.quantity_in_stock";
+        String linkSql = "INSERT IGNORE INTO BookAuthors (ISBN, author_id) VALUES (?, ?)";
+
+        // Authors referenced by this chunk that are not in the database yet
+        Set<String> newNames = new LinkedHashSet<>();
+        for (List<String> names : authorNames.values()) {
+            for (String name : names) {
+                if (!authorIds.containsKey(name)) {
+                    newNames.add(name);
+                }
+            }
+        }
+        Map<String, Integer> createdIds = new HashMap<>();
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            // 1. New authors
+            if (!newNames.isEmpty()) {
+                List<String> ordered = new ArrayList<>(newNames);
+                try (PreparedStatement pstmt = conn.prepareStatement(insertAuthorSql, Statement.RETURN_GENERATED_KEYS)) {
+                    for (String name : ordered) {
+                        pstmt.setString(1, name);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        int i = 0;
+                        while (keys.next() && i < ordered.size()) {
+                            createdIds.put(ordered.get(i++), keys.getInt(1));
+                        }
+                    }
+                }
+                if (createdIds.size() != newNames.size()) {
+                    throw new SQLException("Expected " + newNames.size() + " generated author IDs, got " + createdIds.size());
+                }
+            }
+
+            // 2. Books
+            try (PreparedStatement pstmt = conn.prepareStatement(upsertBookSql)) {
+                for (Book book : books) {
+                    pstmt.setString(1, book.getIsbn());
+                    pstmt.setString(2, book.getTitle());
+                    pstmt.setDouble(3, book.getPrice());
+                    pstmt.setInt(4, book.getQuantityInStock());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            // 3. Book/author links
+            try (PreparedStatement pstmt = conn.prepareStatement(linkSql)) {
+                boolean any = false;
+                for (Map.Entry<String, List<String>> entry : authorNames.entrySet()) {
+                    for (String name : entry.getValue()) {
+                        Integer authorId = authorIds.containsKey(name) ? authorIds.get(name) : createdIds.get(name);
+                        pstmt.setString(1, entry.getKey());
+                        pstmt.setInt(2, authorId);
+                        pstmt.addBatch();
+                        any = true;
+                    }
+                }
+                if (any) {
+                    pstmt.executeBatch();
+                }
+            }
+
+            conn.commit();
+            authorIds.putAll(createdIds);
+            log.debug("Saved chunk of {} books, {} new authors.", books.size(), createdIds.size());
+            return createdIds.size();
+
+        } catch (SQLException e) {
+            log.error("SQL Error in saveChunk() transaction: {}", e.getMessage(), e);
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException se) {
+                    log.error("Rollback failed for import chunk", se);
+                }
+            }
+            return -1;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Restore default
+                    conn.close();
+                } catch (SQLException e) {
+                    log.error("Could not release connection after import chunk", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams the whole catalog, ordered by ISBN, to the given consumer one row at a time.
+     *
+     * The statement is forward-only and read-only with a fetch size, and the JDBC URL
+     * has useCursorFetch=true, so MySQL hands over EXPORT_FETCH_SIZE rows per round trip
+     * through a server-side cursor instead of sending the whole result at once.
+     * Only one row is in memory at a time, however large the catalog is.
+     *
+     * This statement is deliberately not taken from the statement cache
+     * (the cache only handles the plain prepareStatement(sql) calls), so
+     * its fetch size never leaks into other queries.
+     *
+     * @param consumer Called once per book. If it throws (e.g. the client went away),
+     *                 the export stops and the exception is passed on.
+     * @return The number of rows exported, or -1 on a database error.
+     */
+    public long exportCatalog(Consumer<CatalogEntry> consumer) {
+        String sql = "SELECT b.isbn, b.title, b.price, b.quantity_in_stock, " +
+                     "(SELECT GROUP_CONCAT(a.author_name ORDER BY a.author_name SEPARATOR ';') " +
+                     "   FROM BookAuthors ba JOIN Authors a ON a.author_id = ba.author_id " +
+                     "  WHERE ba.ISBN = b.isbn) AS authors, " +
+                     "br.rating_sum / NULLIF(br.review_count, 0) AS avg_rating " +
+                     "FROM Books b LEFT JOIN BookRatings br ON br.ISBN = b.isbn ORDER BY b.isbn";
+        long rows = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(EXPORT_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    CatalogEntry entry = new CatalogEntry();
+                    entry.setIsbn(rs.getString("isbn"));
+                    entry.setTitle(rs.getString("title"));
+                    entry.setPrice(rs.getDouble("price"));
+                    entry.setQuantityInStock(rs.getInt("quantity_in_stock"));
+                    String authors = rs.getString("authors");
+                    entry.setAuthors(authors == null ? "" : authors);
+                    double avgRating = rs.getDouble("avg_rating");
+                    entry.setAverageRating(rs.wasNull() ? null : avgRating);
+                    consumer.accept(entry);
+                    rows++;
+                }
+            }
+        } catch (SQLException e) {
+            log.error("SQL Error in exportCatalog() after {} rows", rows, e);
+            return -1;
+        }
+        log.info("Exported {} catalog rows.", rows);
+        return rows;
+    }
+}
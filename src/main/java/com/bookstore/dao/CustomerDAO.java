@@ -11,6 +11,7 @@ import java.sql.Statement;
 
 import com.bookstore.model.Customer;
 import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
 
 /**
  * DAO for Customer table.
@@ -18,6 +19,8 @@ import com.bookstore.util.DatabaseConnection;
  */
 public class CustomerDAO {
 
+    private static final Log log = Log.getLog(CustomerDAO.class);
+
     /**
      * Hashes a plain-text password using SHA-256.
      * @param password The plain-text password.
@@ -39,8 +42,7 @@ public class CustomerDAO {
             }
             return hexString.toString();
         } catch (NoSuchAlgorithmException e) {
-            System.err.println("Error: SHA-256 algorithm not found.");
-            e.printStackTrace();
+            log.error("Error: SHA-256 algorithm not found.", e);
             throw new RuntimeException("SHA-256 error", e); // Fail fast
         }
     }
@@ -53,7 +55,7 @@ public class CustomerDAO {
      */
     public boolean registerCustomer(Customer customer) {
         String sql = "INSERT INTO Customers (name, email, password_hash, address) VALUES (?, ?, ?, ?)";
-        System.out.println("[CustomerDAO] Attempting to register new customer: " + customer.getEmail());
+        log.info("Attempting to register new customer: {}", customer.getEmail());
 
         // Hash the password before storing
         String hashedPassword = hashPassword(customer.getPasswordHash());
@@ -70,9 +72,8 @@ public class CustomerDAO {
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            System.err.println("SQL Error in registerCustomer(): " + e.getMessage());
             // This error (e.g., code 1062) will trigger if the email (UNIQUE) already exists
-            e.printStackTrace();
+            log.warn("SQL Error in registerCustomer(): {}", e.getMessage());
             return false;
         }
     }
@@ -85,7 +86,7 @@ public class CustomerDAO {
      */
     public Customer checkLogin(String email, String plainTextPassword) {
         String sql = "SELECT * FROM Customers WHERE email = ?";
-        System.out.println("[CustomerDAO] Checking login for: " + email);
+        log.info("Checking login for: {}", email);
 
         String hashedPasswordToCheck = hashPassword(plainTextPassword);
 
@@ -101,7 +102,7 @@ public class CustomerDAO {
 
                     if (hashedPasswordToCheck.equals(storedHash)) {
                         // Password matches!
-                        System.out.println("[CustomerDAO] Password match for: " + email);
+                        log.debug("Password match for: {}", email);
                         return new Customer(
                             rs.getInt("customer_id"),
                             rs.getString("name"),
@@ -111,16 +112,15 @@ public class CustomerDAO {
                         );
                     } else {
                         // Password does not match
-                        System.out.println("[CustomerDAO] Password mismatch for: " + email);
+                        log.info("Password mismatch for: {}", email);
                     }
                 } else {
                     // No user found with that email
-                    System.out.println("[CustomerDAO] No customer found with email: " + email);
+                    log.info("No customer found with email: {}", email);
                 }
             }
         } catch (SQLException e) {
-            System.err.println("SQL Error in checkLogin(): " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in checkLogin(): {}", e.getMessage(), e);
         }
 
         return null; // Return null if login fails for any reason
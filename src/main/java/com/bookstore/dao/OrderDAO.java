@@ -1,17 +1,30 @@
 package com.bookstore.dao;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.bookstore.model.Book;
 import com.bookstore.model.Order;
 import com.bookstore.model.OrderItem;
+import com.bookstore.model.Page;
+import com.bookstore.service.BookCache;
+import com.bookstore.service.BookSearchIndex;
+import com.bookstore.service.InventoryService;
 import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+import com.bookstore.util.PageCursor;
 
 /**
  * DAO for 'Orders' and 'OrderItems'.
@@ -19,83 +32,393 @@ import com.bookstore.util.DatabaseConnection;
  */
 public class OrderDAO {
 
+    private static final Log log = Log.getLog(OrderDAO.class);
+
+    private final BookSearchIndex searchIndex = BookSearchIndex.getInstance();
+    private final BookCache bookCache = BookCache.getInstance();
+    private final InventoryService inventory = InventoryService.getInstance();
+    private final BookDAO bookDAO = new BookDAO();
+
+    /** How often a transaction that lost a deadlock or lock wait is tried in total. */
+    private static final int MAX_ATTEMPTS = 3;
+
+    /** Pause before the first retry; doubled for every further one. */
+    private static final long BACKOFF_BASE_MS = 20;
+
+    /** MySQL error for a foreign key pointing to a missing row (e.g. a deleted order). */
+    private static final int ER_NO_REFERENCED_ROW = 1452;
+
+    /** Carts per statement when verifying order totals. */
+    private static final int VERIFY_BATCH_SIZE = 500;
+
     /**
-     * Adds a book to a customer's "Pending" order (cart).
-     * Checks stock levels before adding.
+     * Outcome of addBookToCart.
+     */
+    public enum CartUpdate {
+        ADDED,
+        OUT_OF_STOCK,
+        /** The order is no longer a pending cart (checked out, or deleted). */
+        CART_CLOSED,
+        FAILED
+    }
+
+    /**
+     * Adds one copy of a book to a "Pending" order (cart).
+     *
+     * The stock check and the insert/increment are a single statement, so two
+     * parallel clicks can never put more copies in the cart than are in stock:
+     * the SELECT only produces a row if the book has more copies in stock than the
+     * cart already holds, and the unique (order_id, ISBN) key turns a second add of
+     * the same book into "quantity + 1". The line is priced from the Books table.
+     * The order total is raised by the line's price in the same transaction.
+     *
+     * When InventoryService is enabled, the copy is reserved in memory first, so adds
+     * beyond the stock are turned away without touching the database. The line is then
+     * written with a plain upsert. Its foreign key check on ISBN still takes a shared lock
+     * on the Books row, so it still waits while a checkout holds that row's exclusive lock.
+     *
+     * The caller passes the cart's order ID (see findOrCreateCart), usually cached in
+     * the session. It is checked by the statements themselves: CART_CLOSED means the
+     * cached ID is stale and the caller should look the cart up again.
      *
-     * @return true if the book was added/updated, false if out of stock.
+     * @param orderId The order ID of the cart.
+     * @return ADDED if the book was added/updated, OUT_OF_STOCK, CART_CLOSED or FAILED otherwise.
      */
-    public boolean addBookToCart(int customerId, String isbn, double priceAtPurchase) {
-        System.out.println("[OrderDAO] Adding book " + isbn + " to cart for customer " + customerId);
+    public CartUpdate addBookToCart(int orderId, String isbn) {
+        log.info("Adding book {} to order {}", isbn, orderId);
 
-        // 1. Find or create the customer's "Pending" order (their cart).
-        Order cart = findOrCreateCart(customerId);
-        int orderId = cart.getOrderId();
+        if (!inventory.isEnabled()) {
+            return upsertCartLine(orderId, isbn, null);
+        }
 
-        String checkItemSql = "SELECT * FROM OrderItems WHERE order_id = ? AND isbn = ?";
-        String updateQtySql = "UPDATE OrderItems SET quantity = quantity + 1 WHERE order_id = ? AND isbn = ?";
-        String insertItemSql = "INSERT INTO OrderItems (order_id, isbn, quantity, price_at_purchase) VALUES (?, ?, 1, ?)";
-        String checkStockSql = "SELECT quantity_in_stock FROM Books WHERE isbn = ?";
+        // Reserve the copy in memory (no database round trip for hot titles)
+        Book book = bookDAO.findBookByIsbn(isbn);
+        if (book == null || !inventory.reserve(orderId, isbn, 1)) {
+            log.warn("FAILED to add {} to order {}: not enough stock.", isbn, orderId);
+            return CartUpdate.OUT_OF_STOCK;
+        }
+        CartUpdate result = upsertCartLine(orderId, isbn, BigDecimal.valueOf(book.getPrice()));
+        if (result != CartUpdate.ADDED) {
+            inventory.release(orderId, isbn, 1);
+        }
+        return result;
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            
-            int currentStock = 0;
-            int currentCartQty = 0;
-            
-            // 2. Get the current stock level for the book
-            try (PreparedStatement stockStmt = conn.prepareStatement(checkStockSql)) {
-                stockStmt.setString(1, isbn);
-                ResultSet rs = stockStmt.executeQuery();
-                if (rs.next()) {
-                    currentStock = rs.getInt("quantity_in_stock");
+    /**
+     * Adds one copy of a book to a cart line and raises the order total, in one transaction.
+     *
+     * @param price The price of a reserved copy (the stock was already checked by
+     *              InventoryService), or null to check the stock and read the price
+     *              from the Books table in the same statement.
+     */
+    private CartUpdate upsertCartLine(int orderId, String isbn, BigDecimal price) {
+        // Affected rows: 1 = new line, 2 = quantity incremented, 0 = not enough stock.
+        String upsertItemSql = "INSERT INTO OrderItems (order_id, ISBN, quantity, price_at_purchase) " +
+                               "SELECT ?, b.ISBN, 1, b.price FROM Books b " +
+                               "LEFT JOIN OrderItems oi ON oi.order_id = ? AND oi.ISBN = b.ISBN " +
+                               "WHERE b.ISBN = ? AND b.quantity_in_stock > COALESCE(oi.quantity, 0) " +
+                               "ON DUPLICATE KEY UPDATE quantity = OrderItems.quantity + 1";
+        String upsertReservedItemSql = "INSERT INTO OrderItems (order_id, ISBN, quantity, price_at_purchase) " +
+                                       "VALUES (?, ?, 1, ?) " +
+                                       "ON DUPLICATE KEY UPDATE quantity = quantity + 1";
+        String addToTotalSql = "UPDATE Orders o JOIN OrderItems oi ON oi.order_id = o.order_id AND oi.ISBN = ? " +
+                               "SET o.total_amount = o.total_amount + oi.price_at_purchase " +
+                               "WHERE o.order_id = ? AND o.status = 'Pending'";
+
+        for (int attempt = 1; ; attempt++) {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getConnection();
+                conn.setAutoCommit(false);
+
+                // Add the book if there is stock left for it
+                int rowsAffected;
+                if (price == null) {
+                    try (PreparedStatement upsertStmt = conn.prepareStatement(upsertItemSql)) {
+                        upsertStmt.setInt(1, orderId);
+                        upsertStmt.setInt(2, orderId);
+                        upsertStmt.setString(3, isbn);
+                        rowsAffected = upsertStmt.executeUpdate();
+                    }
+                } else {
+                    try (PreparedStatement upsertStmt = conn.prepareStatement(upsertReservedItemSql)) {
+                        upsertStmt.setInt(1, orderId);
+                        upsertStmt.setString(2, isbn);
+                        upsertStmt.setBigDecimal(3, price);
+                        rowsAffected = upsertStmt.executeUpdate();
+                    }
+                }
+                if (rowsAffected == 0) {
+                    conn.rollback();
+                    log.warn("FAILED to add {} to order {}: not enough stock.", isbn, orderId);
+                    return CartUpdate.OUT_OF_STOCK;
+                }
+
+                // Add the line's price to the order total (works for a new line and for +1)
+                try (PreparedStatement totalStmt = conn.prepareStatement(addToTotalSql)) {
+                    totalStmt.setString(1, isbn);
+                    totalStmt.setInt(2, orderId);
+                    if (totalStmt.executeUpdate() == 0) {
+                        // The cart was checked out while we were adding to it
+                        conn.rollback();
+                        log.warn("FAILED to add {}: order {} is no longer pending.", isbn, orderId);
+                        return CartUpdate.CART_CLOSED;
+                    }
                 }
+                conn.commit();
+                return CartUpdate.ADDED;
+
+            } catch (SQLException e) {
+                rollback(conn, orderId);
+                if (isRetryable(e) && attempt < MAX_ATTEMPTS && backoff(attempt)) {
+                    // Two adds for the same cart at once can deadlock; the database
+                    // has already undone the loser, so it is safe to run it again.
+                    log.warn("Add to cart for order {} hit a lock conflict, retrying: {}", orderId, e.getMessage());
+                    continue;
+                }
+                if (e.getErrorCode() == ER_NO_REFERENCED_ROW) {
+                    log.warn("FAILED to add {}: order {} no longer exists.", isbn, orderId);
+                    return CartUpdate.CART_CLOSED;
+                }
+                log.error("SQL Error adding book to cart: {}", e.getMessage(), e);
+                return CartUpdate.FAILED;
+            } finally {
+                release(conn, orderId);
             }
+        }
+    }
+
+    /**
+     * Adds several books, several copies each, to a cart in one transaction.
+     * Used by CartStore to write buffered adds in one go.
+     *
+     * Each line is a stock-guarded upsert like addBookToCart: a line is only added if
+     * the book has enough stock for the copies already in the cart plus the new ones,
+     * otherwise it is skipped as a whole. The upserts and the matching total
+     * updates are sent as two batches.
+     *
+     * @param quantities ISBN -> copies to add.
+     * @return ISBN -> outcome for every line. If the order is no longer a pending cart,
+     *         nothing is written and every line is CART_CLOSED.
+     */
+    public Map<String, CartUpdate> addBooksToCart(int orderId, Map<String, Integer> quantities) {
+        // Affected rows per line: 1 = new line, 2 = quantity increased, 0 = not enough stock.
+        String upsertItemSql = "INSERT INTO OrderItems (order_id, ISBN, quantity, price_at_purchase) " +
+                               "SELECT ?, b.ISBN, ?, b.price FROM Books b " +
+                               "LEFT JOIN OrderItems oi ON oi.order_id = ? AND oi.ISBN = b.ISBN " +
+                               "WHERE b.ISBN = ? AND b.quantity_in_stock >= COALESCE(oi.quantity, 0) + ? " +
+                               "ON DUPLICATE KEY UPDATE quantity = OrderItems.quantity + ?";
+        String addToTotalSql = "UPDATE Orders o JOIN OrderItems oi ON oi.order_id = o.order_id AND oi.ISBN = ? " +
+                               "SET o.total_amount = o.total_amount + oi.price_at_purchase * ? " +
+                               "WHERE o.order_id = ? AND o.status = 'Pending'";
+        log.debug("Adding {} buffered lines to order {}", quantities.size(), orderId);
 
-            // 3. Check if this item is already in the cart
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkItemSql)) {
-                checkStmt.setInt(1, orderId);
-                checkStmt.setString(2, isbn);
-                ResultSet rs = checkStmt.executeQuery();
+        for (int attempt = 1; ; attempt++) {
+            Map<String, CartUpdate> results = new LinkedHashMap<>();
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getConnection();
+                conn.setAutoCommit(false);
 
-                if (rs.next()) {
-                    // Item exists, get its current quantity
-                    currentCartQty = rs.getInt("quantity");
+                List<String> isbns = new ArrayList<>(quantities.keySet());
+                int[] counts;
+                try (PreparedStatement upsertStmt = conn.prepareStatement(upsertItemSql)) {
+                    for (String isbn : isbns) {
+                        int quantity = quantities.get(isbn);
+                        upsertStmt.setInt(1, orderId);
+                        upsertStmt.setInt(2, quantity);
+                        upsertStmt.setInt(3, orderId);
+                        upsertStmt.setString(4, isbn);
+                        upsertStmt.setInt(5, quantity);
+                        upsertStmt.setInt(6, quantity);
+                        upsertStmt.addBatch();
+                    }
+                    counts = upsertStmt.executeBatch();
+                }
+
+                int[] totalCounts;
+                try (PreparedStatement totalStmt = conn.prepareStatement(addToTotalSql)) {
+                    for (int i = 0; i < isbns.size(); i++) {
+                        if (counts[i] == 0) {
+                            results.put(isbns.get(i), CartUpdate.OUT_OF_STOCK);
+                            continue;
+                        }
+                        results.put(isbns.get(i), CartUpdate.ADDED);
+                        totalStmt.setString(1, isbns.get(i));
+                        totalStmt.setInt(2, quantities.get(isbns.get(i)));
+                        totalStmt.setInt(3, orderId);
+                        totalStmt.addBatch();
+                    }
+                    totalCounts = totalStmt.executeBatch();
+                }
+                for (int count : totalCounts) {
+                    if (count == 0) {
+                        conn.rollback();
+                        log.warn("FAILED to add buffered lines: order {} is no longer pending.", orderId);
+                        return allLines(quantities, CartUpdate.CART_CLOSED);
+                    }
+                }
+
+                conn.commit();
+                return results;
+
+            } catch (SQLException e) {
+                rollback(conn, orderId);
+                if (isRetryable(e) && attempt < MAX_ATTEMPTS && backoff(attempt)) {
+                    log.warn("Buffered add for order {} hit a lock conflict, retrying: {}", orderId, e.getMessage());
+                    continue;
                 }
+                if (e.getErrorCode() == ER_NO_REFERENCED_ROW) {
+                    log.warn("FAILED to add buffered lines: order {} no longer exists.", orderId);
+                    return allLines(quantities, CartUpdate.CART_CLOSED);
+                }
+                log.error("SQL Error adding buffered lines to order {}", orderId, e);
+                return allLines(quantities, CartUpdate.FAILED);
+            } finally {
+                release(conn, orderId);
             }
+        }
+    }
+
+    private static Map<String, CartUpdate> allLines(Map<String, Integer> quantities, CartUpdate outcome) {
+        Map<String, CartUpdate> results = new LinkedHashMap<>();
+        for (String isbn : quantities.keySet()) {
+            results.put(isbn, outcome);
+        }
+        return results;
+    }
+
+    /**
+     * Loads a cart by its order ID, e.g. one cached in the session.
+     * A primary key lookup that also validates the ID.
+     *
+     * @return The order, or null if it is not (or no longer) a pending cart of this customer.
+     */
+    public Order findCart(int orderId, int customerId) {
+        String sql = "SELECT * FROM Orders WHERE order_id = ? AND customer_id = ? AND status = 'Pending'";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            // 4. *** THE INVENTORY CHECK ***
-            if ((currentCartQty + 1) > currentStock) {
-                System.err.println("[OrderDAO] FAILED to add " + isbn + ". Stock: " + currentStock + ", Cart Qty: " + currentCartQty);
-                return false; // Return failure
+            stmt.setInt(1, orderId);
+            stmt.setInt(2, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Order(
+                        rs.getInt("order_id"),
+                        rs.getInt("customer_id"),
+                        rs.getDate("order_date"),
+                        rs.getBigDecimal("total_amount"),
+                        rs.getString("status")
+                    );
+                }
             }
+        } catch (SQLException e) {
+            log.error("SQL Error in findCart: {}", e.getMessage(), e);
+        }
+        return null;
+    }
 
-            // 5. If stock is OK, proceed with insert or update
-            if (currentCartQty > 0) {
-                System.out.println("[OrderDAO] Item already in cart. Updating quantity.");
-                try (PreparedStatement updateStmt = conn.prepareStatement(updateQtySql)) {
-                    updateStmt.setInt(1, orderId);
-                    updateStmt.setString(2, isbn);
-                    updateStmt.executeUpdate();
+    /**
+     * Fetches one page of a customer's order history (every order except the cart),
+     * newest first, ordered by (order_date, order_id) descending.
+     *
+     * Uses keyset pagination like AuthorDAO.listAuthorsPage. Orders that have been moved
+     * to OrdersArchive (see archiveOrders) are included: the page is read from both tables
+     * with UNION ALL, each side limited to one page, and merged. idx_orders_customer_history
+     * and idx_ordersarchive_customer_history hold every column the query reads, so a page
+     * is one index range scan per table no matter how many orders the customer has, and
+     * the item count comes from item_count instead of the order items.
+     *
+     * @param after  Cursor of the last order of the previous page (for "Older"), or null.
+     * @param before Cursor of the first order of the following page (for "Newer"), or null.
+     *               Ignored if 'after' is given.
+     * @param pageSize Maximum number of orders on the page.
+     */
+    public Page<Order> listOrdersForCustomer(int customerId, String after, String before, int pageSize) {
+        String[] afterKey = PageCursor.decode(after, 2);
+        String[] beforeKey = afterKey == null ? PageCursor.decode(before, 2) : null;
+        boolean backwards = beforeKey != null;
+
+        String keyset = "";
+        String direction = " DESC";
+        if (afterKey != null) {
+            keyset = "AND (order_date < ? OR (order_date = ? AND order_id < ?)) ";
+        } else if (backwards) {
+            keyset = "AND (order_date > ? OR (order_date = ? AND order_id > ?)) ";
+            direction = "";
+        }
+        String columns = "SELECT order_id, order_date, status, total_amount, item_count ";
+        String orderBy = "ORDER BY order_date" + direction + ", order_id" + direction + " LIMIT ?";
+        String sql = "SELECT * FROM (" +
+                     "(" + columns + "FROM Orders WHERE customer_id = ? AND status <> 'Pending' " + keyset + orderBy + ") " +
+                     "UNION ALL " +
+                     "(" + columns + "FROM OrdersArchive WHERE customer_id = ? " + keyset + orderBy + ")" +
+                     ") h " + orderBy;
+        log.info("Listing orders page for customer {}", customerId);
+
+        List<Order> orders = new ArrayList<>(pageSize + 1);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            String[] key = backwards ? beforeKey : afterKey;
+            for (int table = 0; table < 2; table++) { // Orders, then OrdersArchive
+                pstmt.setInt(index++, customerId);
+                if (key != null) {
+                    Timestamp orderDate = new Timestamp(Long.parseLong(key[0]));
+                    pstmt.setTimestamp(index++, orderDate);
+                    pstmt.setTimestamp(index++, orderDate);
+                    pstmt.setInt(index++, Integer.parseInt(key[1]));
                 }
-            } else {
-                System.out.println("[OrderDAO] Item not in cart. Inserting new item.");
-                try (PreparedStatement insertStmt = conn.prepareStatement(insertItemSql)) {
-                    insertStmt.setInt(1, orderId);
-                    insertStmt.setString(2, isbn);
-                    insertStmt.setDouble(3, priceAtPurchase);
-                    insertStmt.executeUpdate();
+                pstmt.setInt(index++, pageSize + 1);
+            }
+            pstmt.setInt(index, pageSize + 1); // one extra row tells us whether there is more
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Order order = new Order(
+                        rs.getInt("order_id"),
+                        customerId,
+                        // keeps the time of day, which the cursor needs
+                        new java.sql.Date(rs.getTimestamp("order_date").getTime()),
+                        rs.getBigDecimal("total_amount"),
+                        rs.getString("status")
+                    );
+                    order.setItemCount(rs.getInt("item_count"));
+                    orders.add(order);
                 }
             }
-            
-            // 6. Update the total amount for the order
-            updateOrderTotal(conn, orderId);
-            return true; // Return success
-            
-        } catch (SQLException e) {
-            System.err.println("[OrderDAO] SQL Error adding book to cart: " + e.getMessage());
-            e.printStackTrace();
-            return false; // Return failure
+        } catch (SQLException | NumberFormatException e) {
+            log.error("SQL Error in listOrdersForCustomer(): {}", e.getMessage(), e);
+        }
+
+        boolean hasMore = orders.size() > pageSize;
+        if (hasMore) {
+            orders.remove(orders.size() - 1);
         }
+        if (backwards) {
+            Collections.reverse(orders); // we read the rows oldest first
+        }
+
+        boolean hasNext = backwards || hasMore;
+        boolean hasPrev = backwards ? hasMore : afterKey != null;
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!orders.isEmpty()) {
+            Order first = orders.get(0);
+            Order last = orders.get(orders.size() - 1);
+            if (hasNext) {
+                nextCursor = PageCursor.encode(String.valueOf(last.getOrderDate().getTime()), String.valueOf(last.getOrderId()));
+            }
+            if (hasPrev) {
+                prevCursor = PageCursor.encode(String.valueOf(first.getOrderDate().getTime()), String.valueOf(first.getOrderId()));
+            }
+        }
+
+        log.info("Found {} orders.", orders.size());
+        return new Page<>(orders, pageSize, nextCursor, prevCursor);
     }
 
     /**
@@ -115,19 +438,19 @@ public class OrderDAO {
                 
                 if (rs.next()) {
                     // Found an existing cart
-                    System.out.println("[OrderDAO] Found existing cart for customer " + customerId);
+                    log.debug("Found existing cart for customer {}", customerId);
                     return new Order(
                         rs.getInt("order_id"),
                         rs.getInt("customer_id"),
                         rs.getDate("order_date"),
-                        rs.getDouble("total_amount"),
+                        rs.getBigDecimal("total_amount"),
                         rs.getString("status")
                     );
                 }
             }
             
             // 2. No "Pending" order found, so create one
-            System.out.println("[OrderDAO] No pending cart. Creating new cart for customer " + customerId);
+            log.info("No pending cart. Creating new cart for customer {}", customerId);
             try (PreparedStatement createStmt = conn.prepareStatement(createSql, Statement.RETURN_GENERATED_KEYS)) {
                 createStmt.setInt(1, customerId);
                 createStmt.executeUpdate();
@@ -137,7 +460,7 @@ public class OrderDAO {
                     if (generatedKeys.next()) {
                         int newOrderId = generatedKeys.getInt(1);
                         // Return the new cart object
-                        return new Order(newOrderId, customerId, new java.sql.Date(System.currentTimeMillis()), 0.0, "Pending");
+                        return new Order(newOrderId, customerId, new java.sql.Date(System.currentTimeMillis()), BigDecimal.ZERO, "Pending");
                     } else {
                         throw new SQLException("Creating order failed, no ID obtained.");
                     }
@@ -145,8 +468,7 @@ public class OrderDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("[OrderDAO] SQL Error in findOrCreateCart: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error in findOrCreateCart: {}", e.getMessage(), e);
             return null; // Return null on failure
         }
     }
@@ -175,7 +497,7 @@ public class OrderDAO {
                 item.setOrderId(rs.getInt("order_id"));
                 item.setIsbn(rs.getString("isbn"));
                 item.setQuantity(rs.getInt("quantity"));
-                item.setPriceAtPurchase(rs.getDouble("price_at_purchase"));
+                item.setPriceAtPurchase(rs.getBigDecimal("price_at_purchase"));
                 
                 // Add the JOINED data (book title)
                 item.setBookTitle(rs.getString("title"));
@@ -183,63 +505,59 @@ public class OrderDAO {
                 cartItems.add(item);
             }
         } catch (SQLException e) {
-            System.err.println("[OrderDAO] SQL Error getting cart items: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error getting cart items: {}", e.getMessage(), e);
         }
-        System.out.println("[OrderDAO] Found " + cartItems.size() + " items for order " + orderId);
+        log.debug("Found {} items for order {}", cartItems.size(), orderId);
         return cartItems;
     }
 
     /**
-     * A helper method to recalculate the total price of an order.
-     * This is called after adding/removing/updating items.
+     * Adds 'delta' (negative to subtract) to an order's total.
+     * Called on the same connection, and so in the same transaction, as the item change.
      */
-    private void updateOrderTotal(Connection conn, int orderId) throws SQLException {
-        String totalSql = "SELECT SUM(quantity * price_at_purchase) AS subtotal FROM OrderItems WHERE order_id = ?";
-        String updateSql = "UPDATE Orders SET total_amount = ? WHERE order_id = ?";
-        
-        double totalAmount = 0.0;
+    private void adjustOrderTotal(Connection conn, int orderId, BigDecimal delta) throws SQLException {
+        String updateSql = "UPDATE Orders SET total_amount = total_amount + ? WHERE order_id = ?";
         
-        // 1. Calculate the new total from OrderItems
-        try (PreparedStatement totalStmt = conn.prepareStatement(totalSql)) {
-            totalStmt.setInt(1, orderId);
-            ResultSet rs = totalStmt.executeQuery();
-            if (rs.next()) {
-                totalAmount = rs.getDouble("subtotal");
-            }
-        }
-        
-        // 2. Update the Orders table with the new total
         try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-            updateStmt.setDouble(1, totalAmount);
+            updateStmt.setBigDecimal(1, delta);
             updateStmt.setInt(2, orderId);
             updateStmt.executeUpdate();
         }
-        System.out.println("[OrderDAO] Updated order " + orderId + " total to: " + totalAmount);
+        log.debug("Adjusted order {} total by {}", orderId, delta);
     }
     
     /**
-     * Removes an item from the OrderItems table.
-     * After removal, it recalculates the order's total amount.
+     * Removes an item from the OrderItems table and subtracts its
+     * line total from the order's total, in one transaction.
+     * Only items of the given cart are removed.
      */
-    public void removeItemFromCart(int orderItemId) {
-        String findOrderSql = "SELECT order_id FROM OrderItems WHERE order_item_id = ?";
+    public void removeItemFromCart(int orderId, int orderItemId) {
+        String findItemSql = "SELECT order_id, isbn, quantity * price_at_purchase AS line_total FROM OrderItems " +
+                             "WHERE order_item_id = ? AND order_id = ? FOR UPDATE";
         String deleteSql = "DELETE FROM OrderItems WHERE order_item_id = ?";
-        int orderId = -1;
+        String isbn = null;
+        BigDecimal lineTotal = BigDecimal.ZERO;
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
             
-            // 1. First, find the order_id this item belongs to
-            try (PreparedStatement findStmt = conn.prepareStatement(findOrderSql)) {
+            // 1. First, find (and lock) the item
+            try (PreparedStatement findStmt = conn.prepareStatement(findItemSql)) {
                 findStmt.setInt(1, orderItemId);
-                ResultSet rs = findStmt.executeQuery();
-                if (rs.next()) {
-                    orderId = rs.getInt("order_id");
+                findStmt.setInt(2, orderId);
+                try (ResultSet rs = findStmt.executeQuery()) {
+                    if (rs.next()) {
+                        isbn = rs.getString("isbn");
+                        lineTotal = rs.getBigDecimal("line_total");
+                    }
                 }
             }
             
-            if (orderId == -1) {
-                System.err.println("[OrderDAO] Could not find item with id: " + orderItemId);
+            if (isbn == null) {
+                conn.rollback();
+                log.warn("Could not find item {} in order {}", orderItemId, orderId);
                 return;
             }
 
@@ -247,108 +565,422 @@ public class OrderDAO {
             try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
                 deleteStmt.setInt(1, orderItemId);
                 int rowsAffected = deleteStmt.executeUpdate();
-                System.out.println("[OrderDAO] Removed item " + orderItemId + ". Rows affected: " + rowsAffected);
+                log.info("Removed item {}. Rows affected: {}", orderItemId, rowsAffected);
             }
             
-            // 3. Finally, update the order's total amount
-            updateOrderTotal(conn, orderId);
+            // 3. Finally, take the line off the order's total
+            adjustOrderTotal(conn, orderId, lineTotal.negate());
+            conn.commit();
+            inventory.release(orderId, isbn);
             
         } catch (SQLException e) {
-            System.err.println("[OrderDAO] SQL Error removing item from cart: " + e.getMessage());
-            e.printStackTrace();
+            log.error("SQL Error removing item from cart: {}", e.getMessage(), e);
+            rollback(conn, orderId);
+        } finally {
+            release(conn, orderId);
         }
     }
+
+    /**
+     * Compares the total of every "Pending" order (cart) with the sum of its items
+     * and corrects the ones that differ. Carts are the only orders whose items change,
+     * and their totals are maintained by deltas, so this catches any drift (e.g. items
+     * changed by hand in the database).
+     *
+     * Works through the carts in order_id order, VERIFY_BATCH_SIZE per statement,
+     * so each statement only locks a small number of carts.
+     *
+     * @return The number of totals corrected, or -1 on a database error.
+     */
+    public int verifyOrderTotals() {
+        String batchEndSql = "SELECT MAX(order_id) FROM " +
+                             "(SELECT order_id FROM Orders WHERE status = 'Pending' AND order_id > ? " +
+                             " ORDER BY order_id LIMIT ?) o";
+        String itemTotal = "(SELECT COALESCE(SUM(oi.quantity * oi.price_at_purchase), 0) " +
+                           " FROM OrderItems oi WHERE oi.order_id = o.order_id)";
+        String fixSql = "UPDATE Orders o SET o.total_amount = " + itemTotal + " " +
+                        "WHERE o.status = 'Pending' AND o.order_id > ? AND o.order_id <= ? " +
+                        "AND o.total_amount <> " + itemTotal;
+
+        int corrected = 0;
+        int after = 0;
+        log.info("Verifying cart totals...");
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement endStmt = conn.prepareStatement(batchEndSql);
+             PreparedStatement fixStmt = conn.prepareStatement(fixSql)) {
+
+            while (true) {
+                int last;
+                endStmt.setInt(1, after);
+                endStmt.setInt(2, VERIFY_BATCH_SIZE);
+                try (ResultSet rs = endStmt.executeQuery()) {
+                    rs.next();
+                    last = rs.getInt(1);
+                    if (rs.wasNull()) {
+                        break; // no carts after 'after'
+                    }
+                }
+
+                fixStmt.setInt(1, after);
+                fixStmt.setInt(2, last);
+                corrected += fixStmt.executeUpdate(); // only rows that differed match the WHERE
+
+                after = last;
+            }
+        } catch (SQLException e) {
+            log.error("SQL Error in verifyOrderTotals(): {}", e.getMessage(), e);
+            return -1;
+        }
+        if (corrected > 0) {
+            log.warn("Corrected the total of {} carts.", corrected);
+        } else {
+            log.info("All cart totals are correct.");
+        }
+        return corrected;
+    }
     
     /**
-     * Places an order. This is a TRANSACTIONAL operation.
-     * 1. Verifies stock for all items.
-     * 2. Decrements stock from the Books table.
-     * 3. Updates the Order status from "Pending" to "Placed".
+     * Deletes up to 'limit' "Pending" orders (carts) that have not changed for
+     * 'maxAgeDays' days, oldest first. Their items go with them (ON DELETE CASCADE).
+     * Each call is one short statement on the (status, updated_at) index, so the
+     * caller can spread a large cleanup over many small batches.
      *
-     * @return true on success, false on failure (e.g., out of stock)
+     * @return The number of carts deleted, or -1 on a database error.
      */
-    public boolean placeOrder(int orderId) {
-        System.out.println("[OrderDAO] Attempting to place order " + orderId);
-        
-        String checkStockSql = "SELECT b.quantity_in_stock, oi.quantity FROM OrderItems oi " +
-                               "JOIN Books b ON oi.isbn = b.isbn WHERE oi.order_id = ?";
-        
-        String updateStockSql = "UPDATE Books SET quantity_in_stock = quantity_in_stock - ? " +
-                                "WHERE isbn = ?";
-        
-        String updateOrderStatusSql = "UPDATE Orders SET status = 'Placed', order_date = CURDATE() " +
-                                      "WHERE order_id = ?";
-        
+    public int deleteAbandonedCarts(int maxAgeDays, int limit) {
+        String sql = "DELETE FROM Orders " +
+                     "WHERE status = 'Pending' AND updated_at < NOW() - INTERVAL ? DAY " +
+                     "ORDER BY updated_at, order_id LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, maxAgeDays);
+            stmt.setInt(2, limit);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            log.error("SQL Error in deleteAbandonedCarts: {}", e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * Moves up to 'limit' (at most SqlLists.MAX_IN_LIST) finished orders older than 'olderThanDays' days, oldest first,
+     * with their items, from Orders and OrderItems to OrdersArchive and OrderItemsArchive.
+     * One transaction per call: the orders are locked, copied and then deleted from the
+     * hot tables (their items go with them, ON DELETE CASCADE).
+     *
+     * Only orders in a final status ("Placed" or "Delivered") are moved: nothing changes
+     * them any more, so nothing else competes for these rows. Carts and orders still being
+     * fulfilled ("Processing", "Shipped") stay in the hot tables, where they can be updated.
+     * Read paths that show old orders consult both tables.
+     *
+     * @return The number of orders moved, or -1 on a database error.
+     */
+    public int archiveOrders(int olderThanDays, int limit) {
+        String pickSql = "SELECT order_id FROM Orders " +
+                         "WHERE status IN ('Placed', 'Delivered') AND order_date < NOW() - INTERVAL ? DAY " +
+                         "ORDER BY order_date, order_id LIMIT ? FOR UPDATE";
+
         Connection conn = null;
-        
         try {
             conn = DatabaseConnection.getConnection();
-            
-            // --- Start Transaction ---
             conn.setAutoCommit(false);
-            
-            List<OrderItem> items = getCartItems(orderId);
-            
-            // 1. Verify stock one last time
-            System.out.println("[OrderDAO] Verifying stock for order " + orderId);
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkStockSql)) {
-                checkStmt.setInt(1, orderId);
-                ResultSet rs = checkStmt.executeQuery();
-                
-                while (rs.next()) {
-                    int inStock = rs.getInt("quantity_in_stock");
-                    int inCart = rs.getInt("quantity");
-                    if (inCart > inStock) {
-                        System.err.println("[OrderDAO] Checkout FAILED: Not enough stock.");
-                        throw new SQLException("Item out of stock. Cannot complete order.");
+
+            // 1. Pick (and lock) the oldest finished orders
+            List<Integer> orderIds = new ArrayList<>();
+            try (PreparedStatement pickStmt = conn.prepareStatement(pickSql)) {
+                pickStmt.setInt(1, olderThanDays);
+                pickStmt.setInt(2, Math.min(limit, SqlLists.MAX_IN_LIST));
+                try (ResultSet rs = pickStmt.executeQuery()) {
+                    while (rs.next()) {
+                        orderIds.add(rs.getInt("order_id"));
                     }
                 }
             }
-            
-            // 2. If stock is OK, decrement stock from Books table
-            System.out.println("[OrderDAO] Stock OK. Decrementing quantities...");
-            try (PreparedStatement updateStockStmt = conn.prepareStatement(updateStockSql)) {
-                for (OrderItem item : items) {
-                    updateStockStmt.setInt(1, item.getQuantity());
-                    updateStockStmt.setString(2, item.getIsbn());
-                    updateStockStmt.addBatch();
-                }
-                updateStockStmt.executeBatch();
+            if (orderIds.isEmpty()) {
+                conn.commit();
+                return 0;
             }
-            
-            // 3. Update the Order status to "Placed"
-            System.out.println("[OrderDAO] Updating order status to 'Placed'.");
-            try (PreparedStatement updateOrderStmt = conn.prepareStatement(updateOrderStatusSql)) {
-                updateOrderStmt.setInt(1, orderId);
-                updateOrderStmt.executeUpdate();
+
+            // 2. Copy them with their items, then delete them from the hot tables
+            List<Integer> values = SqlLists.padded(orderIds);
+            String in = "(" + SqlLists.placeholders(values.size()) + ")";
+            String[] moveSql = {
+                "INSERT INTO OrdersArchive (order_id, customer_id, order_date, total_amount, status, item_count, updated_at) " +
+                "SELECT order_id, customer_id, order_date, total_amount, status, item_count, updated_at " +
+                "FROM Orders WHERE order_id IN " + in,
+                "INSERT INTO OrderItemsArchive (order_item_id, order_id, ISBN, quantity, price_at_purchase) " +
+                "SELECT order_item_id, order_id, ISBN, quantity, price_at_purchase " +
+                "FROM OrderItems WHERE order_id IN " + in,
+                "DELETE FROM Orders WHERE order_id IN " + in
+            };
+            for (String sql : moveSql) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    for (Integer orderId : values) {
+                        stmt.setInt(index++, orderId);
+                    }
+                    stmt.executeUpdate();
+                }
             }
-            
-            // --- All steps successful: Commit Transaction ---
             conn.commit();
-            System.out.println("[OrderDAO] Order " + orderId + " placed successfully!");
-            return true;
-            
+            return orderIds.size();
+
         } catch (SQLException e) {
-            // Something went wrong! Roll back all changes.
-            System.err.println("[OrderDAO] TRANSACTION FAILED: " + e.getMessage());
-            if (conn != null) {
-                try {
+            log.error("SQL Error in archiveOrders: {}", e.getMessage(), e);
+            rollback(conn, -1);
+            return -1;
+        } finally {
+            release(conn, -1);
+        }
+    }
+
+    /**
+     * Places an order. This is a TRANSACTIONAL operation:
+     * 1. Moves the order from "Pending" to "Placed" (only if it is still pending).
+     * 2. Decrements the stock of every item, but only where enough is left.
+     * If any step fails, nothing is changed.
+     *
+     * A transaction that loses a deadlock or lock wait is retried, up to
+     * MAX_ATTEMPTS times with a growing, randomized pause in between.
+     *
+     * @return true on success, false on failure (e.g., out of stock)
+     */
+    public boolean placeOrder(int orderId) {
+        log.info("Attempting to place order {}", orderId);
+        
+        for (int attempt = 1; ; attempt++) {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getConnection();
+                
+                // --- Start Transaction ---
+                conn.setAutoCommit(false);
+                
+                List<OrderItem> items = applyCheckout(conn, orderId);
+                if (items == null) {
                     conn.rollback();
-                    System.err.println("[OrderDAO] Transaction rolled back.");
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
+                    return false;
                 }
+                
+                // --- All steps successful: Commit Transaction ---
+                conn.commit();
+                orderPlaced(orderId, items);
+                return true;
+                
+            } catch (SQLException e) {
+                // Something went wrong! Roll back all changes.
+                rollback(conn, orderId);
+                if (isRetryable(e) && attempt < MAX_ATTEMPTS && backoff(attempt)) {
+                    log.warn("Checkout of order {} hit a lock conflict (attempt {}), retrying: {}",
+                            orderId, attempt, e.getMessage());
+                    continue;
+                }
+                log.warn("TRANSACTION FAILED: {}", e.getMessage());
+                return false;
+            } finally {
+                release(conn, orderId);
             }
-            return false;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true); // Reset connection to default
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
+        }
+    }
+
+    /**
+     * Places several orders in ONE transaction (group commit), so they share a
+     * single commit and log flush. Used by CheckoutPipeline.
+     *
+     * Each order runs inside its own savepoint: an order that cannot be placed
+     * (out of stock, not pending) is rolled back to its savepoint and reported as
+     * failed, without affecting the others. If the transaction itself fails (lock
+     * conflict after all retries, lost connection), every order is placed on its
+     * own with placeOrder instead, so one bad order cannot fail the whole group.
+     *
+     * @return Order ID -> placed or not, for every requested order.
+     */
+    public Map<Integer, Boolean> placeOrders(List<Integer> orderIds) {
+        log.debug("Placing {} orders in one transaction", orderIds.size());
+
+        for (int attempt = 1; ; attempt++) {
+            Map<Integer, Boolean> results = new LinkedHashMap<>();
+            Map<Integer, List<OrderItem>> placed = new LinkedHashMap<>();
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getConnection();
+                conn.setAutoCommit(false);
+
+                for (Integer orderId : orderIds) {
+                    if (results.containsKey(orderId)) {
+                        continue; // same cart submitted twice; both get the first result
+                    }
+                    Savepoint savepoint = conn.setSavepoint();
+                    List<OrderItem> items = applyCheckout(conn, orderId);
+                    if (items == null) {
+                        conn.rollback(savepoint);
+                        results.put(orderId, false);
+                    } else {
+                        conn.releaseSavepoint(savepoint);
+                        placed.put(orderId, items);
+                        results.put(orderId, true);
+                    }
+                }
+
+                conn.commit();
+                for (Map.Entry<Integer, List<OrderItem>> order : placed.entrySet()) {
+                    orderPlaced(order.getKey(), order.getValue());
+                }
+                return results;
+
+            } catch (SQLException e) {
+                rollback(conn, -1);
+                if (isRetryable(e) && attempt < MAX_ATTEMPTS && backoff(attempt)) {
+                    log.warn("Group checkout of {} orders hit a lock conflict (attempt {}), retrying: {}",
+                            orderIds.size(), attempt, e.getMessage());
+                    continue;
+                }
+                log.warn("Group checkout FAILED, placing the orders one by one: {}", e.getMessage());
+                break;
+            } finally {
+                release(conn, -1);
+            }
+        }
+
+        Map<Integer, Boolean> results = new LinkedHashMap<>();
+        for (Integer orderId : orderIds) {
+            if (!results.containsKey(orderId)) {
+                results.put(orderId, placeOrder(orderId));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Updates the in-memory components after an order has been committed.
+     */
+    private void orderPlaced(int orderId, List<OrderItem> items) {
+        inventory.confirm(orderId, items);
+        for (OrderItem item : items) {
+            bookCache.invalidate(item.getIsbn());
+            searchIndex.adjustStock(item.getIsbn(), -item.getQuantity());
+        }
+        log.info("Order {} placed successfully!", orderId);
+    }
+
+    /**
+     * The checkout steps of placeOrder, run on the caller's connection and transaction.
+     *
+     * The stock decrements are guarded ("WHERE quantity_in_stock >= ?"), so stock can
+     * never go negative, and every row count is checked, so a short item rejects the
+     * whole order. Books are always locked in ISBN order; two checkouts that share
+     * books then wait for each other instead of deadlocking.
+     *
+     * @return The items of the placed order, or null if the order cannot be placed
+     *         (not pending, empty, or out of stock). The caller must then roll back.
+     */
+    private List<OrderItem> applyCheckout(Connection conn, int orderId) throws SQLException {
+        String updateOrderStatusSql = "UPDATE Orders SET status = 'Placed', order_date = CURDATE(), " +
+                                      "item_count = (SELECT COALESCE(SUM(quantity), 0) FROM OrderItems WHERE order_id = ?) " +
+                                      "WHERE order_id = ? AND status = 'Pending'";
+        String itemsSql = "SELECT isbn, quantity FROM OrderItems WHERE order_id = ? ORDER BY isbn";
+        String updateStockSql = "UPDATE Books SET quantity_in_stock = quantity_in_stock - ? " +
+                                "WHERE isbn = ? AND quantity_in_stock >= ?";
+
+        // 1. Claim the order. This locks it, so a second checkout of the same
+        //    cart (double click) waits here and then finds it already placed.
+        try (PreparedStatement updateOrderStmt = conn.prepareStatement(updateOrderStatusSql)) {
+            updateOrderStmt.setInt(1, orderId);
+            updateOrderStmt.setInt(2, orderId);
+            if (updateOrderStmt.executeUpdate() == 0) {
+                log.warn("Checkout FAILED: order {} is not pending.", orderId);
+                return null;
+            }
+        }
+
+        // 2. Read the items on this connection, inside the transaction, in ISBN order
+        List<OrderItem> items = new ArrayList<>();
+        try (PreparedStatement itemsStmt = conn.prepareStatement(itemsSql)) {
+            itemsStmt.setInt(1, orderId);
+            try (ResultSet rs = itemsStmt.executeQuery()) {
+                while (rs.next()) {
+                    OrderItem item = new OrderItem();
+                    item.setOrderId(orderId);
+                    item.setIsbn(rs.getString("isbn"));
+                    item.setQuantity(rs.getInt("quantity"));
+                    items.add(item);
                 }
             }
         }
+        if (items.isEmpty()) {
+            log.warn("Checkout FAILED: order {} is empty.", orderId);
+            return null;
+        }
+
+        // 3. Decrement stock where enough is left, in one batch
+        log.debug("Decrementing stock for {} items of order {}", items.size(), orderId);
+        int[] counts;
+        try (PreparedStatement updateStockStmt = conn.prepareStatement(updateStockSql)) {
+            for (OrderItem item : items) {
+                updateStockStmt.setInt(1, item.getQuantity());
+                updateStockStmt.setString(2, item.getIsbn());
+                updateStockStmt.setInt(3, item.getQuantity());
+                updateStockStmt.addBatch();
+            }
+            counts = updateStockStmt.executeBatch();
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                log.warn("Checkout FAILED: not enough stock of {} for order {}.", items.get(i).getIsbn(), orderId);
+                return null;
+            }
+        }
+        return items;
+    }
+
+    // --- Transaction helpers ---
+
+    /**
+     * @return true for errors where the transaction was rolled back by the database
+     *         and can simply be run again (lock wait timeout, deadlock, serialization failure).
+     */
+    private static boolean isRetryable(SQLException e) {
+        return e.getErrorCode() == 1205 || e.getErrorCode() == 1213 || "40001".equals(e.getSQLState());
+    }
+
+    /**
+     * Sleeps before retry number 'attempt': about BACKOFF_BASE_MS, doubled per attempt,
+     * with random jitter so the transactions that collided do not collide again.
+     *
+     * @return false if the thread was interrupted (give up instead of retrying).
+     */
+    private static boolean backoff(int attempt) {
+        long base = BACKOFF_BASE_MS << (attempt - 1);
+        try {
+            Thread.sleep(base + ThreadLocalRandom.current().nextLong(base));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void rollback(Connection conn, int orderId) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                log.error("Rollback failed for order {}", orderId, e);
+            }
+        }
+    }
+
+    private void release(Connection conn, int orderId) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true); // Reset connection to default
+                conn.close();
+            } catch (SQLException e) {
+                log.error("Could not release connection for order {}", orderId, e);
+            }
+        }
     }
 }
@@ -4,97 +4,200 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.bookstore.model.Page;
+import com.bookstore.model.RatingSummary;
 import com.bookstore.model.Review;
 import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+import com.bookstore.util.PageCursor;
 
 public class ReviewDAO {
 
-    // List all reviews for a specific book, ordered by most recent
-    public List<Review> listReviewsForBook(String isbn) {
-        List<Review> reviews = new ArrayList<>();
+    private static final Log log = Log.getLog(ReviewDAO.class);
+
+    /** Reviews per page on the book details page (and per "load more"). */
+    public static final int REVIEWS_PAGE_SIZE = 10;
+
+    /** Books per statement when rebuilding BookRatings. */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * Lists one page of a book's reviews, most recent first.
+     *
+     * Keyset pagination on (review_date, review_id): the next page starts right after
+     * the last review of the previous one. idx_reviews_book_date on (ISBN, review_date)
+     * (plus the review_id primary key InnoDB appends to it) serves both the WHERE
+     * and the ORDER BY, so every page costs the same however many reviews a book has.
+     *
+     * @param isbn The book's ISBN.
+     * @param after Cursor from the previous page's nextCursor, or null for the first page.
+     * @return The page; nextCursor is null on the last page.
+     */
+    public Page<Review> listReviewsPage(String isbn, String after) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return readReviewsPage(conn, isbn, after);
+        } catch (SQLException e) {
+            log.error("SQL Error in listReviewsPage(): {}", e.getMessage(), e);
+            return new Page<>(new ArrayList<>(), REVIEWS_PAGE_SIZE, null, null);
+        }
+    }
+
+    /**
+     * Shared by listReviewsPage and BookDetailsDAO (which runs it on its own connection).
+     */
+    static Page<Review> readReviewsPage(Connection conn, String isbn, String after) throws SQLException {
+        String[] afterKey = PageCursor.decode(after, 2);
         String sql = "SELECT r.*, c.name as customer_name " +
                      "FROM Reviews r " +
                      "JOIN Customers c ON r.customer_id = c.customer_id " +
                      "WHERE r.isbn = ? " +
-                     "ORDER BY r.review_date DESC";
+                     (afterKey != null
+                         ? "AND (r.review_date < ? OR (r.review_date = ? AND r.review_id < ?)) "
+                         : "") +
+                     "ORDER BY r.review_date DESC, r.review_id DESC " +
+                     "LIMIT ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, isbn);
-            ResultSet rs = pstmt.executeQuery();
+        List<Review> reviews = new ArrayList<>(REVIEWS_PAGE_SIZE + 1);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setString(index++, isbn);
+            if (afterKey != null) {
+                Timestamp afterDate;
+                int afterId;
+                try {
+                    afterDate = new Timestamp(Long.parseLong(afterKey[0]));
+                    afterId = Integer.parseInt(afterKey[1]);
+                } catch (NumberFormatException e) {
+                    throw new SQLException("Malformed review cursor: " + after, e);
+                }
+                pstmt.setTimestamp(index++, afterDate);
+                pstmt.setTimestamp(index++, afterDate);
+                pstmt.setInt(index++, afterId);
+            }
+            pstmt.setInt(index, REVIEWS_PAGE_SIZE + 1); // one extra row tells us whether there is more
 
-            while (rs.next()) {
-                Review review = mapResultSetToReview(rs);
-                review.setCustomerName(rs.getString("customer_name"));
-                reviews.add(review);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Review review = mapResultSetToReview(rs);
+                    review.setCustomerName(rs.getString("customer_name"));
+                    reviews.add(review);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        return reviews;
+
+        String nextCursor = null;
+        if (reviews.size() > REVIEWS_PAGE_SIZE) {
+            reviews.remove(reviews.size() - 1);
+            Review last = reviews.get(reviews.size() - 1);
+            nextCursor = PageCursor.encode(String.valueOf(last.getReviewDate().getTime()),
+                                           String.valueOf(last.getReviewId()));
+        }
+        return new Page<>(reviews, REVIEWS_PAGE_SIZE, nextCursor, null);
     }
 
-    // Add a new review
+    // Add a new review (and count it in BookRatings, in the same transaction)
     public boolean addReview(Review review) {
         String sql = "INSERT INTO Reviews (isbn, customer_id, rating, review_text, review_date) " +
                      "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, review.getIsbn());
-            pstmt.setInt(2, review.getCustomerId());
-            pstmt.setInt(3, review.getRating());
-            pstmt.setString(4, review.getReviewText());
-            
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, review.getIsbn());
+                pstmt.setInt(2, review.getCustomerId());
+                pstmt.setInt(3, review.getRating());
+                pstmt.setString(4, review.getReviewText());
+                pstmt.executeUpdate();
+            }
+            applyRatingChange(conn, review.getIsbn(), 0, review.getRating());
+
+            conn.commit();
+            return true;
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("SQL Error in addReview(): {}", e.getMessage(), e);
+            rollback(conn);
             return false;
+        } finally {
+            release(conn);
         }
     }
 
-    // Update an existing review
+    // Update an existing review (moving its vote in BookRatings if the rating changed)
     public boolean updateReview(Review review) {
         String sql = "UPDATE Reviews SET rating = ?, review_text = ?, review_date = CURRENT_TIMESTAMP " +
                      "WHERE review_id = ? AND customer_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, review.getRating());
-            pstmt.setString(2, review.getReviewText());
-            pstmt.setInt(3, review.getReviewId());
-            pstmt.setInt(4, review.getCustomerId()); // Security check: ensure user owns the review
-            
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            // Lock the review and read its current rating, so the aggregate moves the right vote
+            Review existing = lockReview(conn, review.getReviewId(), review.getCustomerId());
+            if (existing == null) {
+                conn.rollback();
+                return false; // Not found, or not this customer's review
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, review.getRating());
+                pstmt.setString(2, review.getReviewText());
+                pstmt.setInt(3, review.getReviewId());
+                pstmt.setInt(4, review.getCustomerId()); // Security check: ensure user owns the review
+                pstmt.executeUpdate();
+            }
+            if (existing.getRating() != review.getRating()) {
+                applyRatingChange(conn, existing.getIsbn(), existing.getRating(), review.getRating());
+            }
+
+            conn.commit();
+            return true;
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("SQL Error in updateReview(): {}", e.getMessage(), e);
+            rollback(conn);
             return false;
+        } finally {
+            release(conn);
         }
     }
 
-    // Delete a review
+    // Delete a review (and remove its vote from BookRatings)
     public boolean deleteReview(int reviewId, int customerId) {
         String sql = "DELETE FROM Reviews WHERE review_id = ? AND customer_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, reviewId);
-            pstmt.setInt(2, customerId); // Security check
-            
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            Review existing = lockReview(conn, reviewId, customerId);
+            if (existing == null) {
+                conn.rollback();
+                return false;
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, reviewId);
+                pstmt.setInt(2, customerId); // Security check
+                pstmt.executeUpdate();
+            }
+            applyRatingChange(conn, existing.getIsbn(), existing.getRating(), 0);
+
+            conn.commit();
+            return true;
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("SQL Error in deleteReview(): {}", e.getMessage(), e);
+            rollback(conn);
             return false;
+        } finally {
+            release(conn);
         }
     }
 
@@ -113,51 +216,181 @@ public class ReviewDAO {
                 return mapResultSetToReview(rs);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("SQL Error in findReviewByCustomerAndBook(): {}", e.getMessage(), e);
         }
         return null;
     }
 
-    // Get average rating for a book
-    public double getAverageRating(String isbn) {
-        String sql = "SELECT AVG(rating) FROM Reviews WHERE isbn = ?";
+    // Get the rating aggregate for a book (a primary-key read of BookRatings)
+    public RatingSummary getRatingSummary(String isbn) {
+        String sql = "SELECT * FROM BookRatings WHERE isbn = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, isbn);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getDouble(1); // Returns 0.0 if NULL
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToRatingSummary(rs);
+                }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("SQL Error in getRatingSummary(): {}", e.getMessage(), e);
         }
-        return 0.0;
+        return new RatingSummary(); // No reviews yet
+    }
+
+    // Get average rating for a book
+    public double getAverageRating(String isbn) {
+        return getRatingSummary(isbn).getAverageRating();
     }
 
     // Get total number of reviews for a book
     public int getReviewCount(String isbn) {
-        String sql = "SELECT COUNT(*) FROM Reviews WHERE isbn = ?";
+        return getRatingSummary(isbn).getReviewCount();
+    }
+
+    /**
+     * Recomputes BookRatings from the Reviews table, to repair any drift
+     * (e.g. reviews changed by hand in the database).
+     *
+     * Works through the Books table in ISBN order, REBUILD_BATCH_SIZE books per
+     * statement, so each statement only locks the reviews of those books and
+     * review writes elsewhere are not held up.
+     *
+     * @return The number of books processed, or -1 on a database error.
+     */
+    public int rebuildRatings() {
+        String batchEndSql = "SELECT COUNT(*), MAX(isbn) FROM " +
+                             "(SELECT isbn FROM Books WHERE isbn > ? ORDER BY isbn LIMIT ?) b";
+        String rebuildSql =
+            "INSERT INTO BookRatings (isbn, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) " +
+            "SELECT * FROM (" +
+            "  SELECT b.isbn, COUNT(r.review_id) AS n, COALESCE(SUM(r.rating), 0) AS total, " +
+            "         COALESCE(SUM(r.rating = 1), 0) AS s1, COALESCE(SUM(r.rating = 2), 0) AS s2, " +
+            "         COALESCE(SUM(r.rating = 3), 0) AS s3, COALESCE(SUM(r.rating = 4), 0) AS s4, " +
+            "         COALESCE(SUM(r.rating = 5), 0) AS s5 " +
+            "  FROM Books b LEFT JOIN Reviews r ON r.isbn = b.isbn " +
+            "  WHERE b.isbn > ? AND b.isbn <= ? " +
+            "  GROUP BY b.isbn" +
+            ") AS agg " + // a GROUP BY result can only be referenced below through a derived table
+            "ON DUPLICATE KEY UPDATE review_count = agg.n, rating_sum = agg.total, " +
+            "  stars_1 = agg.s1, stars_2 = agg.s2, stars_3 = agg.s3, stars_4 = agg.s4, stars_5 = agg.s5";
         
+        int books = 0;
+        String after = "";
+        log.info("Rebuilding rating aggregates...");
+
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, isbn);
-            ResultSet rs = pstmt.executeQuery();
+             PreparedStatement endStmt = conn.prepareStatement(batchEndSql);
+             PreparedStatement rebuildStmt = conn.prepareStatement(rebuildSql)) {
 
-            if (rs.next()) {
-                return rs.getInt(1);
+            while (true) {
+                int count;
+                String last;
+                endStmt.setString(1, after);
+                endStmt.setInt(2, REBUILD_BATCH_SIZE);
+                try (ResultSet rs = endStmt.executeQuery()) {
+                    rs.next();
+                    count = rs.getInt(1);
+                    last = rs.getString(2);
+                }
+                if (last == null) {
+                    break; // no books after 'after'
+                }
+
+                rebuildStmt.setString(1, after);
+                rebuildStmt.setString(2, last);
+                rebuildStmt.executeUpdate();
+
+                books += count;
+                after = last;
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("SQL Error in rebuildRatings(): {}", e.getMessage(), e);
+            return -1;
+        }
+        log.info("Rating aggregates rebuilt for {} books.", books);
+        return books;
+    }
+
+    // --- Helpers ---
+
+    /**
+     * Adds one vote for newRating and removes one for oldRating (0 = none) in BookRatings.
+     * The row is created on the book's first review.
+     */
+    private void applyRatingChange(Connection conn, String isbn, int oldRating, int newRating) throws SQLException {
+        String sql = "INSERT INTO BookRatings (isbn, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?) AS delta " +
+                     "ON DUPLICATE KEY UPDATE review_count = BookRatings.review_count + delta.review_count, " +
+                     "  rating_sum = BookRatings.rating_sum + delta.rating_sum, " +
+                     "  stars_1 = BookRatings.stars_1 + delta.stars_1, stars_2 = BookRatings.stars_2 + delta.stars_2, " +
+                     "  stars_3 = BookRatings.stars_3 + delta.stars_3, stars_4 = BookRatings.stars_4 + delta.stars_4, " +
+                     "  stars_5 = BookRatings.stars_5 + delta.stars_5";
+
+        int countDelta = (newRating > 0 ? 1 : 0) - (oldRating > 0 ? 1 : 0);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, isbn);
+            pstmt.setInt(2, countDelta);
+            pstmt.setInt(3, newRating - oldRating);
+            for (int stars = 1; stars <= 5; stars++) {
+                int delta = (newRating == stars ? 1 : 0) - (oldRating == stars ? 1 : 0);
+                pstmt.setInt(3 + stars, delta);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads a customer's review with a row lock (SELECT ... FOR UPDATE).
+     * @return The review, or null if it does not exist or belongs to someone else.
+     */
+    private Review lockReview(Connection conn, int reviewId, int customerId) throws SQLException {
+        String sql = "SELECT * FROM Reviews WHERE review_id = ? AND customer_id = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, reviewId);
+            pstmt.setInt(2, customerId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToReview(rs) : null;
+            }
+        }
+    }
+
+    private void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                log.error("Rollback failed", e);
+            }
+        }
+    }
+
+    private void release(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true); // Restore default
+                conn.close();
+            } catch (SQLException e) {
+                log.error("Could not release connection", e);
+            }
+        }
+    }
+
+    // Helper method to map a BookRatings row to a RatingSummary
+    static RatingSummary mapResultSetToRatingSummary(ResultSet rs) throws SQLException {
+        RatingSummary summary = new RatingSummary();
+        summary.setReviewCount(rs.getInt("review_count"));
+        summary.setRatingSum(rs.getInt("rating_sum"));
+        for (int stars = 1; stars <= 5; stars++) {
+            summary.setStarCount(stars, rs.getInt("stars_" + stars));
         }
-        return 0;
+        return summary;
     }
 
     // Helper method to map ResultSet to Review object
-    private Review mapResultSetToReview(ResultSet rs) throws SQLException {
+    private static Review mapResultSetToReview(ResultSet rs) throws SQLException {
         Review review = new Review();
         review.setReviewId(rs.getInt("review_id"));
         review.setIsbn(rs.getString("isbn"));
@@ -0,0 +1,73 @@
+package com.bookstore.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Helpers for queries that take a list of values, e.g. "WHERE isbn IN (?, ?, ?)".
+ */
+public final class SqlLists {
+
+    /**
+     * Largest number of values we put in one IN (...) list. Keeps each statement
+     * well below max_allowed_packet.
+     */
+    public static final int MAX_IN_LIST = 500;
+
+    private SqlLists() {
+    }
+
+    /**
+     * @return "?, ?, ?" with 'count' placeholders.
+     */
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Pads a list of IN (...) values to the next power of two (or MAX_IN_LIST) by
+     * repeating its last value, which does not change what IN matches. So a query
+     * has at most 10 distinct shapes (1, 2, 4, ... 256, 500 values) instead of one
+     * per list length, few enough for the per-connection statement cache.
+     * Use the result for both placeholders() and binding.
+     */
+    public static <T> List<T> padded(List<T> values) {
+        int size = 1;
+        while (size < values.size()) {
+            size <<= 1;
+        }
+        size = Math.min(size, Math.max(MAX_IN_LIST, values.size()));
+        if (values.isEmpty() || size == values.size()) {
+            return values;
+        }
+        List<T> result = new ArrayList<>(size);
+        result.addAll(values);
+        T last = values.get(values.size() - 1);
+        while (result.size() < size) {
+            result.add(last);
+        }
+        return result;
+    }
+
+    /**
+     * Splits a list into consecutive chunks of at most 'size' elements.
+     */
+    public static <T> List<List<T>> chunks(List<T> values, int size) {
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<T>> chunks = new ArrayList<>((values.size() + size - 1) / size);
+        for (int start = 0; start < values.size(); start += size) {
+            chunks.add(values.subList(start, Math.min(values.size(), start + size)));
+        }
+        return chunks;
+    }
+}
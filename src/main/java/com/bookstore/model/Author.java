@@ -8,6 +8,7 @@ public class Author {
     private int authorId;
     private String authorName;
     private String bio;
+    private int bookCount; // only filled in by AuthorDAO.listAuthorsPage
 
     // Default constructor
     public Author() {
@@ -52,6 +53,14 @@ public class Author {
         this.bio = bio;
     }
 
+    public int getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(int bookCount) {
+        this.bookCount = bookCount;
+    }
+
     @Override
     public String toString() {
         return "Author [authorId=" + authorId + ", authorName=" + authorName + "]";
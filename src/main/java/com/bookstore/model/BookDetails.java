@@ -0,0 +1,94 @@
+package com.bookstore.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the book details page shows, loaded together by BookDetailsDAO:
+ * the book, its authors, rating stats, the first page of reviews and the viewer's own review.
+ */
+public class BookDetails {
+
+    private Book book;
+    private List<Author> authors = new ArrayList<>();
+    private double averageRating;
+    private int reviewCount;
+    private RatingSummary ratingSummary = new RatingSummary();
+    private List<Review> reviews = new ArrayList<>();
+    private String reviewsNextCursor; // cursor for the next page of reviews, null if there are no more
+    private Review userReview;     // the logged-in customer's review, or null
+
+    // Default constructor (required for a JavaBean)
+    public BookDetails() {
+    }
+
+    // --- Getters and Setters ---
+
+    public Book getBook() {
+        return book;
+    }
+
+    public void setBook(Book book) {
+        this.book = book;
+    }
+
+    public List<Author> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(List<Author> authors) {
+        this.authors = authors;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public RatingSummary getRatingSummary() {
+        return ratingSummary;
+    }
+
+    public void setRatingSummary(RatingSummary ratingSummary) {
+        this.ratingSummary = ratingSummary;
+    }
+
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    public void setReviews(List<Review> reviews) {
+        this.reviews = reviews;
+    }
+
+    public String getReviewsNextCursor() {
+        return reviewsNextCursor;
+    }
+
+    public void setReviewsNextCursor(String reviewsNextCursor) {
+        this.reviewsNextCursor = reviewsNextCursor;
+    }
+
+    public boolean isMoreReviews() {
+        return reviewsNextCursor != null;
+    }
+
+    public Review getUserReview() {
+        return userReview;
+    }
+
+    public void setUserReview(Review userReview) {
+        this.userReview = userReview;
+    }
+}
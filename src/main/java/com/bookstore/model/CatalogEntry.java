@@ -0,0 +1,68 @@
+package com.bookstore.model;
+
+/**
+ * One row of the catalog export: a book with its authors, stock and average rating.
+ */
+public class CatalogEntry {
+
+    private String isbn;
+    private String title;
+    private double price;
+    private int quantityInStock;
+    private String authors;        // author names separated by ';' (empty if none)
+    private Double averageRating;  // null if the book has no reviews
+
+    // Default constructor (required for a JavaBean)
+    public CatalogEntry() {
+    }
+
+    // --- Getters and Setters ---
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public int getQuantityInStock() {
+        return quantityInStock;
+    }
+
+    public void setQuantityInStock(int quantityInStock) {
+        this.quantityInStock = quantityInStock;
+    }
+
+    public String getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(String authors) {
+        this.authors = authors;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+}
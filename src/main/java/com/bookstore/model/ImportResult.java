@@ -0,0 +1,73 @@
+package com.bookstore.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of one bulk catalog import, shown on the import page.
+ */
+public class ImportResult {
+
+    /** Only the first rejects are kept for display; the rest are only counted. */
+    public static final int MAX_REJECTS_SHOWN = 100;
+
+    private long rowsRead;
+    private long booksImported;
+    private long authorsCreated;
+    private long rejectCount;
+    private long elapsedMillis;
+    private final List<String> rejects = new ArrayList<>();
+
+    public void addReject(long lineNumber, String reason) {
+        rejectCount++;
+        if (rejects.size() < MAX_REJECTS_SHOWN) {
+            rejects.add("Line " + lineNumber + ": " + reason);
+        }
+    }
+
+    public void addRowRead() {
+        rowsRead++;
+    }
+
+    public void addBooksImported(long count) {
+        booksImported += count;
+    }
+
+    public void addAuthorsCreated(long count) {
+        authorsCreated += count;
+    }
+
+    // --- Getters and Setters ---
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getBooksImported() {
+        return booksImported;
+    }
+
+    public long getAuthorsCreated() {
+        return authorsCreated;
+    }
+
+    public long getRejectCount() {
+        return rejectCount;
+    }
+
+    public List<String> getRejects() {
+        return rejects;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000 / elapsedMillis;
+    }
+}
@@ -1,5 +1,6 @@
 package com.bookstore.model;
 
+import java.math.BigDecimal;
 import java.sql.Date;
 
 /**
@@ -11,15 +12,16 @@ public class Order {
     private int orderId;
     private int customerId;
     private Date orderDate;
-    private double totalAmount;
+    private BigDecimal totalAmount; // exact, like the DECIMAL(10, 2) column
     private String status; // e.g., "Pending", "Shipped", "Delivered"
+    private int itemCount; // copies in the order; set when it is placed (0 for a cart)
 
     // Default constructor
     public Order() {
     }
 
     // Constructor for creating a new order
-    public Order(int customerId, Date orderDate, double totalAmount, String status) {
+    public Order(int customerId, Date orderDate, BigDecimal totalAmount, String status) {
         this.customerId = customerId;
         this.orderDate = orderDate;
         this.totalAmount = totalAmount;
@@ -27,7 +29,7 @@ public class Order {
     }
     
     // Full constructor (when retrieving from DB)
-    public Order(int orderId, int customerId, Date orderDate, double totalAmount, String status) {
+    public Order(int orderId, int customerId, Date orderDate, BigDecimal totalAmount, String status) {
         this.orderId = orderId;
         this.customerId = customerId;
         this.orderDate = orderDate;
@@ -61,11 +63,11 @@ public class Order {
         this.orderDate = orderDate;
     }
 
-    public double getTotalAmount() {
+    public BigDecimal getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(BigDecimal totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -76,4 +78,12 @@ public class Order {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
 }
\ No newline at end of file
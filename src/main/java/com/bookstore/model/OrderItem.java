@@ -1,5 +1,7 @@
 package com.bookstore.model;
 
+import java.math.BigDecimal;
+
 /**
  * Model class (JavaBean) to represent the 'OrderItems' table.
  * This links an Order to a Book.
@@ -10,7 +12,7 @@ public class OrderItem {
     private int orderId;
     private String isbn;
     private int quantity;
-    private double priceAtPurchase;
+    private BigDecimal priceAtPurchase;
     
     // --- We also add these fields to hold JOINED data ---
     // These are not in the 'OrderItems' table but are useful
@@ -22,7 +24,7 @@ public class OrderItem {
     }
     
     // Constructor for adding a new item
-    public OrderItem(int orderId, String isbn, int quantity, double priceAtPurchase) {
+    public OrderItem(int orderId, String isbn, int quantity, BigDecimal priceAtPurchase) {
         this.orderId = orderId;
         this.isbn = isbn;
         this.quantity = quantity;
@@ -63,11 +65,11 @@ public class OrderItem {
         this.quantity = quantity;
     }
 
-    public double getPriceAtPurchase() {
+    public BigDecimal getPriceAtPurchase() {
         return priceAtPurchase;
     }
 
-    public void setPriceAtPurchase(double priceAtPurchase) {
+    public void setPriceAtPurchase(BigDecimal priceAtPurchase) {
         this.priceAtPurchase = priceAtPurchase;
     }
     
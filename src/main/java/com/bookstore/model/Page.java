@@ -0,0 +1,71 @@
+package com.bookstore.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list.
+ *
+ * The cursors are opaque strings (see PageCursor): pass nextCursor back as the
+ * "after" parameter to get the following page, and prevCursor as "before" to
+ * get the previous one. A cursor is null when there is no page in that direction.
+ */
+public class Page<T> {
+
+    private List<T> items;
+    private int pageSize;
+    private String nextCursor;
+    private String prevCursor;
+
+    // Default constructor (required for a JavaBean)
+    public Page() {
+    }
+
+    public Page(List<T> items, int pageSize, String nextCursor, String prevCursor) {
+        this.items = items;
+        this.pageSize = pageSize;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    // --- Getters and Setters ---
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public void setPrevCursor(String prevCursor) {
+        this.prevCursor = prevCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean isHasPrev() {
+        return prevCursor != null;
+    }
+}
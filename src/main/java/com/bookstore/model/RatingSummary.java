@@ -0,0 +1,98 @@
+package com.bookstore.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A book's rating aggregate from the BookRatings table:
+ * the number of reviews, the sum of their ratings, and how many reviews gave each star.
+ */
+public class RatingSummary {
+
+    private int reviewCount;
+    private int ratingSum;
+    private int[] starCounts = new int[5]; // starCounts[0] = number of 1-star reviews
+
+    // Default constructor (required for a JavaBean)
+    public RatingSummary() {
+    }
+
+    public RatingSummary(int reviewCount, int ratingSum, int[] starCounts) {
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum;
+        this.starCounts = starCounts;
+    }
+
+    // --- Getters and Setters ---
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public int getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(int ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public double getAverageRating() {
+        return reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+    }
+
+    /**
+     * @param stars 1 to 5.
+     */
+    public int getStarCount(int stars) {
+        return starCounts[stars - 1];
+    }
+
+    public void setStarCount(int stars, int count) {
+        starCounts[stars - 1] = count;
+    }
+
+    /**
+     * @return The histogram rows for the JSP, from 5 stars down to 1 star.
+     */
+    public List<StarBar> getHistogram() {
+        List<StarBar> bars = new ArrayList<>(5);
+        for (int stars = 5; stars >= 1; stars--) {
+            int count = starCounts[stars - 1];
+            int percent = reviewCount == 0 ? 0 : Math.round(100f * count / reviewCount);
+            bars.add(new StarBar(stars, count, percent));
+        }
+        return bars;
+    }
+
+    /**
+     * One row of the star histogram.
+     */
+    public static class StarBar {
+        private final int stars;
+        private final int count;
+        private final int percent;
+
+        public StarBar(int stars, int count, int percent) {
+            this.stars = stars;
+            this.count = count;
+            this.percent = percent;
+        }
+
+        public int getStars() {
+            return stars;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getPercent() {
+            return percent;
+        }
+    }
+}
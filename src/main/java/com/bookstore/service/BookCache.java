@@ -0,0 +1,211 @@
+package com.bookstore.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bookstore.model.Book;
+
+/**
+ * Bounded read-through cache in front of BookDAO.findBookByIsbn.
+ *
+ * - At most maxSize books are kept; the least recently used one is evicted first.
+ * - An entry older than the TTL counts as a miss and is reloaded from the database.
+ * - BookDAO and OrderDAO call invalidate() right after every write that changes a book
+ *   (update, delete, stock decrement), so a cached book is never older than the last
+ *   committed change made through this application.
+ *
+ * The cache stores and returns copies, so callers can change the Book they get
+ * without affecting what other requests see.
+ */
+public final class BookCache {
+
+    private static final BookCache INSTANCE = new BookCache();
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    public static final long DEFAULT_TTL_SECONDS = 300;
+
+    /** Most recent invalidations remembered per ISBN; older ones are folded into prunedUpTo. */
+    private static final int MAX_STAMPS = 4096;
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, CachedBook> entries = new LinkedHashMap<>(64, 0.75f, true); // access order = LRU
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private long ttlNanos = TimeUnit.SECONDS.toNanos(DEFAULT_TTL_SECONDS);
+
+    // Bumped by every invalidation. A load that started at clock L must not be cached
+    // if its ISBN was invalidated after L (stamp > L), or if stamps newer than L were
+    // forgotten (prunedUpTo > L). Only loads of the changed ISBN are dropped.
+    private long clock;
+    private long prunedUpTo;
+    private final LinkedHashMap<String, Long> stamps = new LinkedHashMap<>(); // ISBN -> last invalidation, oldest first
+
+    // --- Statistics ---
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private BookCache() {
+    }
+
+    public static BookCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Applies the size limit and TTL. Called once at startup by AppContextListener.
+     */
+    public void configure(int maxSize, long ttlSeconds) {
+        synchronized (lock) {
+            this.maxSize = Math.max(1, maxSize);
+            this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+            evictOverflow();
+        }
+    }
+
+    /**
+     * @return A copy of the cached book, or null on a miss (not cached or expired).
+     */
+    public Book get(String isbn) {
+        synchronized (lock) {
+            CachedBook cached = entries.get(isbn);
+            if (cached != null && System.nanoTime() - cached.loadedAt > ttlNanos) {
+                entries.remove(isbn);
+                expirations.incrementAndGet();
+                cached = null;
+            }
+            if (cached == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return copy(cached.book);
+        }
+    }
+
+    /**
+     * Call before loading from the database; pass the result to put().
+     */
+    public long startLoad() {
+        synchronized (lock) {
+            return clock;
+        }
+    }
+
+    /**
+     * Caches a book loaded from the database, unless that book was invalidated
+     * while it was being loaded (the loaded row might already be stale).
+     */
+    public void put(Book book, long loadStartedAt) {
+        if (book == null) {
+            return;
+        }
+        synchronized (lock) {
+            Long stamp = stamps.get(book.getIsbn());
+            if (prunedUpTo > loadStartedAt || (stamp != null && stamp > loadStartedAt)) {
+                return;
+            }
+            entries.put(book.getIsbn(), new CachedBook(copy(book), System.nanoTime()));
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Drops a book from the cache. Call after the change has been committed.
+     * @return true if the book was cached.
+     */
+    public boolean invalidate(String isbn) {
+        boolean cached;
+        synchronized (lock) {
+            stamps.remove(isbn); // re-inserted at the end, keeping the map oldest first
+            stamps.put(isbn, ++clock);
+            cached = entries.remove(isbn) != null;
+            if (stamps.size() > MAX_STAMPS) {
+                Iterator<Map.Entry<String, Long>> eldest = stamps.entrySet().iterator();
+                prunedUpTo = eldest.next().getValue();
+                eldest.remove();
+            }
+        }
+        invalidations.incrementAndGet();
+        return cached;
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            prunedUpTo = ++clock; // every load in flight is stale
+            stamps.clear();
+            entries.clear();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    // --- Statistics ---
+
+    public int getSize() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        synchronized (lock) {
+            return maxSize;
+        }
+    }
+
+    public long getTtlSeconds() {
+        synchronized (lock) {
+            return TimeUnit.NANOSECONDS.toSeconds(ttlNanos);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    // --- Internals ---
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, CachedBook>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static Book copy(Book book) {
+        return new Book(book.getIsbn(), book.getTitle(), book.getPrice(), book.getQuantityInStock());
+    }
+
+    private static final class CachedBook {
+        final Book book;
+        final long loadedAt;
+
+        CachedBook(Book book, long loadedAt) {
+            this.book = book;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.bookstore.service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.bookstore.model.Book;
+import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+
+/**
+ * In-memory inverted index for the book search box.
+ *
+ * Titles, ISBNs and author names are split into lower-case tokens, and each token
+ * points to the books that contain it. A search looks up every word of the query
+ * as a token PREFIX (so "harr pot" finds "Harry Potter"), keeps the books that match
+ * all words, and ranks them. No SQL is run for a search.
+ *
+ * The index is built once at startup (see AppContextListener) and then kept up to date
+ * by the DAOs, which call putBook/removeBook/linkAuthor/... after each successful write.
+ * Until the first build has finished, isReady() is false and BookDAO.searchBooks
+ * falls back to the SQL query.
+ *
+ * Reads are lock-free (concurrent maps); writes are serialized on the index.
+ */
+public final class BookSearchIndex {
+
+    private static final Log log = Log.getLog(BookSearchIndex.class);
+
+    private static final BookSearchIndex INSTANCE = new BookSearchIndex();
+
+    // Ranking weights: where the matching token was found.
+    private static final int WEIGHT_ISBN = 8;
+    private static final int WEIGHT_TITLE = 4;
+    private static final int WEIGHT_AUTHOR = 2;
+
+    // token -> (isbn -> best field weight of that token in the book)
+    private final ConcurrentSkipListMap<String, Map<String, Integer>> postings = new ConcurrentSkipListMap<>();
+    // isbn -> indexed book
+    private final ConcurrentHashMap<String, Entry> books = new ConcurrentHashMap<>();
+    // author_id -> author_name, and author_id -> ISBNs, so author changes can be re-indexed
+    private final ConcurrentHashMap<Integer, String> authorNames = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<String>> booksByAuthor = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private BookSearchIndex() {
+    }
+
+    public static BookSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getBookCount() {
+        return books.size();
+    }
+
+    public int getTokenCount() {
+        return postings.size();
+    }
+
+    // --- Building ---
+
+    /**
+     * (Re)builds the whole index from the database.
+     * Writes from the DAOs wait until the build has finished, so none are lost.
+     */
+    public synchronized void rebuild() {
+        String booksSql = "SELECT isbn, title, price, quantity_in_stock FROM Books";
+        String authorsSql = "SELECT a.author_id, a.author_name, ba.ISBN FROM Authors a " +
+                            "LEFT JOIN BookAuthors ba ON a.author_id = ba.author_id";
+        long start = System.nanoTime();
+
+        ready = false;
+        postings.clear();
+        books.clear();
+        authorNames.clear();
+        booksByAuthor.clear();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery(booksSql)) {
+                while (rs.next()) {
+                    Entry entry = new Entry(rs.getString("isbn"), rs.getString("title"),
+                            rs.getDouble("price"), rs.getInt("quantity_in_stock"));
+                    books.put(entry.isbn, entry);
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(authorsSql)) {
+                while (rs.next()) {
+                    int authorId = rs.getInt("author_id");
+                    authorNames.put(authorId, rs.getString("author_name"));
+                    String isbn = rs.getString("ISBN");
+                    if (isbn != null && books.containsKey(isbn)) {
+                        booksByAuthor.computeIfAbsent(authorId, id -> ConcurrentHashMap.newKeySet()).add(isbn);
+                        books.get(isbn).authorIds.add(authorId);
+                    }
+                }
+            }
+            for (Entry entry : books.values()) {
+                index(entry);
+            }
+            ready = true;
+            log.info("Search index built: {} books, {} tokens in {} ms.",
+                    books.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+
+        } catch (SQLException e) {
+            ready = false;
+            log.error("Could not build search index, searches will use SQL: {}", e.getMessage(), e);
+        }
+    }
+
+    // --- Updates (called by the DAOs after a successful write) ---
+
+    /**
+     * Adds a book, or updates its title, price and stock. Its author links are kept.
+     */
+    public synchronized void putBook(Book book) {
+        Entry old = books.get(book.getIsbn());
+        Entry entry = new Entry(book.getIsbn(), book.getTitle(), book.getPrice(), book.getQuantityInStock());
+        if (old != null) {
+            entry.authorIds.addAll(old.authorIds);
+            unindex(old);
+        }
+        books.put(entry.isbn, entry);
+        index(entry);
+    }
+
+    public synchronized void removeBook(String isbn) {
+        Entry old = books.remove(isbn);
+        if (old != null) {
+            unindex(old);
+            for (Integer authorId : old.authorIds) {
+                Set<String> isbns = booksByAuthor.get(authorId);
+                if (isbns != null) {
+                    isbns.remove(isbn);
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes the stock shown in search results, e.g. after an order was placed.
+     */
+    public synchronized void adjustStock(String isbn, int delta) {
+        Entry entry = books.get(isbn);
+        if (entry != null) {
+            entry.quantityInStock = Math.max(0, entry.quantityInStock + delta);
+        }
+    }
+
+    /**
+     * Adds an author, or renames one (re-indexing all of their books).
+     */
+    public synchronized void putAuthor(int authorId, String authorName) {
+        authorNames.put(authorId, authorName);
+        reindexBooksOf(authorId);
+    }
+
+    public synchronized void removeAuthor(int authorId) {
+        Set<String> isbns = booksByAuthor.remove(authorId);
+        authorNames.remove(authorId);
+        if (isbns != null) {
+            for (String isbn : isbns) {
+                Entry entry = books.get(isbn);
+                if (entry != null) {
+                    unindex(entry);
+                    entry.authorIds.remove(authorId);
+                    index(entry);
+                }
+            }
+        }
+    }
+
+    public synchronized void linkAuthor(String isbn, int authorId) {
+        Entry entry = books.get(isbn);
+        if (entry != null && entry.authorIds.add(authorId)) {
+            booksByAuthor.computeIfAbsent(authorId, id -> ConcurrentHashMap.newKeySet()).add(isbn);
+            unindex(entry);
+            index(entry);
+        }
+    }
+
+    public synchronized void unlinkAuthor(String isbn, int authorId) {
+        Entry entry = books.get(isbn);
+        if (entry != null && entry.authorIds.contains(authorId)) {
+            unindex(entry);
+            entry.authorIds.remove(authorId);
+            index(entry);
+        }
+        Set<String> isbns = booksByAuthor.get(authorId);
+        if (isbns != null) {
+            isbns.remove(isbn);
+        }
+    }
+
+    // --- Searching ---
+
+    /**
+     * Finds the books that match every word of the query, best matches first.
+     * @param query The text typed into the search box.
+     * @return Copies of the matching books (callers may modify them freely).
+     */
+    public List<Book> search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Integer> scores = null;
+        for (String word : words) {
+            Map<String, Integer> wordScores = scoreWord(word);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                // AND: keep only books that also match this word
+                Map<String, Integer> combined = new HashMap<>();
+                for (Map.Entry<String, Integer> match : scores.entrySet()) {
+                    Integer score = wordScores.get(match.getKey());
+                    if (score != null) {
+                        combined.put(match.getKey(), match.getValue() + score);
+                    }
+                }
+                scores = combined;
+            }
+            if (scores.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+
+        List<Entry> matches = new ArrayList<>(scores.size());
+        for (String isbn : scores.keySet()) {
+            Entry entry = books.get(isbn);
+            if (entry != null) {
+                matches.add(entry);
+            }
+        }
+        final Map<String, Integer> finalScores = scores;
+        matches.sort((a, b) -> {
+            int byScore = Integer.compare(finalScores.get(b.isbn), finalScores.get(a.isbn));
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byTitle = a.title.compareToIgnoreCase(b.title);
+            return byTitle != 0 ? byTitle : a.isbn.compareTo(b.isbn);
+        });
+
+        List<Book> results = new ArrayList<>(matches.size());
+        for (Entry entry : matches) {
+            results.add(new Book(entry.isbn, entry.title, entry.price, entry.quantityInStock));
+        }
+        return results;
+    }
+
+    /**
+     * Scores every book that has a token starting with 'word'.
+     * A whole-token match counts double compared to a prefix match.
+     */
+    private Map<String, Integer> scoreWord(String word) {
+        Map<String, Integer> scores = new HashMap<>();
+        NavigableMap<String, Map<String, Integer>> range =
+                postings.subMap(word, true, word + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<String, Integer>> token : range.entrySet()) {
+            int multiplier = token.getKey().equals(word) ? 2 : 1;
+            for (Map.Entry<String, Integer> posting : token.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * multiplier, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    // --- Internals ---
+
+    private void reindexBooksOf(int authorId) {
+        Set<String> isbns = booksByAuthor.get(authorId);
+        if (isbns == null) {
+            return;
+        }
+        for (String isbn : isbns) {
+            Entry entry = books.get(isbn);
+            if (entry != null) {
+                unindex(entry);
+                index(entry);
+            }
+        }
+    }
+
+    private void index(Entry entry) {
+        Map<String, Integer> tokens = tokensOf(entry);
+        for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+            postings.computeIfAbsent(token.getKey(), t -> new ConcurrentHashMap<>())
+                    .put(entry.isbn, token.getValue());
+        }
+        entry.tokens = tokens.keySet();
+    }
+
+    private void unindex(Entry entry) {
+        for (String token : entry.tokens) {
+            Map<String, Integer> isbns = postings.get(token);
+            if (isbns != null) {
+                isbns.remove(entry.isbn);
+                if (isbns.isEmpty()) {
+                    postings.remove(token, isbns);
+                }
+            }
+        }
+        entry.tokens = Collections.emptySet();
+    }
+
+    /**
+     * @return Every token of the book, with the best weight of the fields it appears in.
+     */
+    private Map<String, Integer> tokensOf(Entry entry) {
+        Map<String, Integer> tokens = new HashMap<>();
+        tokens.put(entry.isbn.toLowerCase(Locale.ROOT), WEIGHT_ISBN);
+        for (String token : tokenize(entry.title)) {
+            tokens.merge(token, WEIGHT_TITLE, Math::max);
+        }
+        for (Integer authorId : entry.authorIds) {
+            for (String token : tokenize(authorNames.get(authorId))) {
+                tokens.merge(token, WEIGHT_AUTHOR, Math::max);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits ("J.R.R. Tolkien" -> j, r, r, tolkien).
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * One indexed book. The title and price are replaced as a whole by putBook.
+     */
+    private static final class Entry {
+        final String isbn;
+        final String title;
+        final double price;
+        volatile int quantityInStock;
+        final Set<Integer> authorIds = Collections.synchronizedSet(new LinkedHashSet<>());
+        Set<String> tokens = new HashSet<>();
+
+        Entry(String isbn, String title, double price, int quantityInStock) {
+            this.isbn = isbn;
+            this.title = title;
+            this.price = price;
+            this.quantityInStock = quantityInStock;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.bookstore.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bookstore.dao.BookDAO;
+import com.bookstore.dao.OrderDAO;
+import com.bookstore.model.Book;
+import com.bookstore.model.Order;
+import com.bookstore.util.Log;
+
+/**
+ * Write-behind cart ("cart.mode" = "write-behind").
+ *
+ * Add-to-cart clicks are kept in memory per customer and written to OrderItems
+ * later, coalesced: ten clicks on the same book become one line with quantity 10,
+ * written in one transaction with the customer's other buffered books
+ * (OrderDAO.addBooksToCart). Buffered adds are written
+ * - by a background job every cart.flushIntervalSeconds,
+ * - before the cart is viewed, changed or checked out,
+ * - on logout, and when the application stops.
+ *
+ * Every buffered add is appended to a local journal file before add() returns. On
+ * startup the adds that were never written are read back from the journal and written
+ * to the database, so a crash of the application does not lose them. The journal is
+ * emptied only when no adds are buffered, none are being written and every record has
+ * reached the file. (A crash right after a write but before its journal marker can
+ * re-apply that one write: at least once, never lost.)
+ *
+ * Journal records are appended in groups: whichever thread gets the journal lock
+ * writes every record queued so far with one flush, so concurrent adds share the
+ * file I/O and the lock on the buffered adds is never held during it.
+ *
+ * The stock check on add uses the cached stock; the stock-guarded write decides.
+ * Lines the write rejects for lack of stock are kept per customer and reported on
+ * the customer's next cart view (takeRejected), like a synchronous add's error.
+ */
+public final class CartStore {
+
+    private static final Log log = Log.getLog(CartStore.class);
+
+    private static final CartStore INSTANCE = new CartStore();
+
+    private final OrderDAO orderDAO = new OrderDAO();
+    private final BookDAO bookDAO = new BookDAO();
+
+    private volatile boolean enabled;
+
+    // customer ID -> buffered adds; guarded by 'this'
+    private final Map<Integer, PendingCart> pending = new HashMap<>();
+    private long sequence;
+    private int inFlight; // carts taken out of 'pending' whose write has not finished
+    // customer ID -> ISBN -> copies the write rejected (out of stock), not yet shown; guarded by 'this'
+    private final Map<Integer, Map<String, Integer>> rejected = new HashMap<>();
+    // records not yet in the file, and how many were ever queued; guarded by 'this'
+    private final List<String> journalQueue = new ArrayList<>();
+    private long recordsQueued;
+
+    // guarded by journalLock
+    private final Object journalLock = new Object();
+    private Path journalPath;
+    private Writer journal;
+    private long recordsWritten;
+
+    private final Object[] flushLocks = new Object[64];
+
+    // --- Statistics ---
+    private final AtomicLong adds = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong linesWritten = new AtomicLong();
+    private final AtomicLong linesRejected = new AtomicLong();
+
+    private CartStore() {
+        for (int i = 0; i < flushLocks.length; i++) {
+            flushLocks[i] = new Object();
+        }
+    }
+
+    public static CartStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Turns write-behind on, replays the journal left by the previous run and
+     * writes what it contained. Called once at startup by AppContextListener.
+     */
+    public void start(Path journalPath) {
+        synchronized (journalLock) {
+            this.journalPath = journalPath;
+            synchronized (this) {
+                replayJournal();
+                enabled = true;
+            }
+        }
+        flushAll(); // write what the previous run left behind; also empties the journal
+        log.info("Write-behind cart started, journal: {}", journalPath);
+    }
+
+    /**
+     * Writes all buffered adds and closes the journal.
+     */
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flushAll();
+        enabled = false;
+        synchronized (journalLock) {
+            writeQueuedRecords();
+            closeJournal();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers one copy of a book for the customer's cart.
+     *
+     * @param orderId The cart's order ID (it is re-resolved at write time if it has been closed).
+     * @return false if the book does not exist or the buffered copies exceed its stock.
+     */
+    public boolean add(int customerId, int orderId, String isbn) {
+        Book book = bookDAO.findBookByIsbn(isbn);
+        if (book == null) {
+            return false;
+        }
+        long ticket;
+        synchronized (this) {
+            PendingCart cart = pending.computeIfAbsent(customerId, id -> new PendingCart(orderId));
+            int buffered = cart.quantities.getOrDefault(isbn, 0);
+            if (buffered + 1 > book.getQuantityInStock()) {
+                if (cart.quantities.isEmpty()) { // don't keep an empty cart that blocks emptying the journal
+                    pending.remove(customerId);
+                }
+                return false;
+            }
+            long seq = ++sequence;
+            ticket = queueRecord("A " + customerId + " " + cart.orderId + " " + isbn + " 1 " + seq);
+            cart.quantities.put(isbn, buffered + 1);
+            cart.lastSequence = seq;
+        }
+        awaitJournal(ticket); // the add counts as done once it is in the file
+        adds.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Writes the customer's buffered adds to the database, if there are any.
+     */
+    public void flush(int customerId) {
+        // One flush per customer at a time, so a checkout waits for a flush already under way
+        synchronized (flushLocks[Math.floorMod(customerId, flushLocks.length)]) {
+            PendingCart cart;
+            synchronized (this) {
+                cart = pending.remove(customerId);
+                if (cart == null) {
+                    return;
+                }
+                inFlight++; // keeps the journal from being emptied until the write is done
+            }
+            try {
+                write(customerId, cart);
+            } finally {
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    private void write(int customerId, PendingCart cart) {
+        Map<String, OrderDAO.CartUpdate> results = orderDAO.addBooksToCart(cart.orderId, cart.quantities);
+        if (results.containsValue(OrderDAO.CartUpdate.CART_CLOSED)) {
+            // The cart was checked out or removed in the meantime; write to the current one
+            Order current = orderDAO.findOrCreateCart(customerId);
+            if (current != null) {
+                cart.orderId = current.getOrderId();
+                results = orderDAO.addBooksToCart(cart.orderId, cart.quantities);
+            }
+        }
+        flushes.incrementAndGet();
+
+        if (results.containsValue(OrderDAO.CartUpdate.FAILED) || results.containsValue(OrderDAO.CartUpdate.CART_CLOSED)) {
+            // Nothing was written; keep the adds (they are still in the journal) for the next flush
+            log.warn("Could not write buffered cart of customer {}, will retry.", customerId);
+            requeue(customerId, cart);
+            return;
+        }
+        Map<String, Integer> dropped = new LinkedHashMap<>();
+        for (Map.Entry<String, OrderDAO.CartUpdate> line : results.entrySet()) {
+            if (line.getValue() == OrderDAO.CartUpdate.ADDED) {
+                linesWritten.incrementAndGet();
+            } else {
+                linesRejected.incrementAndGet();
+                dropped.put(line.getKey(), cart.quantities.get(line.getKey()));
+                log.warn("Dropped buffered {} x {} for customer {}: not enough stock.",
+                        cart.quantities.get(line.getKey()), line.getKey(), customerId);
+            }
+        }
+        long ticket;
+        synchronized (this) {
+            if (!dropped.isEmpty()) {
+                Map<String, Integer> lines = rejected.computeIfAbsent(customerId, id -> new LinkedHashMap<>());
+                dropped.forEach((isbn, quantity) -> lines.merge(isbn, quantity, Integer::sum));
+            }
+            ticket = queueRecord("F " + customerId + " " + cart.lastSequence);
+        }
+        awaitJournal(ticket);
+    }
+
+    /**
+     * Writes every customer's buffered adds; then empties the journal if nothing
+     * is buffered, being written or waiting for the file. Run by the background job.
+     */
+    public void flushAll() {
+        List<Integer> customers;
+        synchronized (this) {
+            customers = new ArrayList<>(pending.keySet());
+        }
+        for (Integer customerId : customers) {
+            flush(customerId);
+        }
+        synchronized (journalLock) {
+            writeQueuedRecords();
+            synchronized (this) {
+                if (!pending.isEmpty() || inFlight > 0 || !journalQueue.isEmpty()) {
+                    return;
+                }
+                truncateJournal(); // under both locks, so no record can be queued or written meanwhile
+            }
+        }
+    }
+
+    /**
+     * Returns, and forgets, the buffered adds of this customer that were dropped
+     * because the book ran out of stock before they were written.
+     * @return ISBN -> copies; empty if none were dropped since the last call.
+     */
+    public synchronized Map<String, Integer> takeRejected(int customerId) {
+        Map<String, Integer> lines = rejected.remove(customerId);
+        return lines == null ? Map.of() : lines;
+    }
+
+    // --- Statistics ---
+
+    public synchronized int getBufferedCartCount() {
+        return pending.size();
+    }
+
+    public long getAdds() {
+        return adds.get();
+    }
+
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    public long getLinesWritten() {
+        return linesWritten.get();
+    }
+
+    public long getLinesRejected() {
+        return linesRejected.get();
+    }
+
+    // --- Internals ---
+
+    /**
+     * Puts adds that could not be written back in front of any newer ones.
+     */
+    private synchronized void requeue(int customerId, PendingCart cart) {
+        PendingCart newer = pending.get(customerId);
+        if (newer != null) {
+            newer.quantities.forEach((isbn, quantity) -> cart.quantities.merge(isbn, quantity, Integer::sum));
+            cart.lastSequence = newer.lastSequence;
+        }
+        pending.put(customerId, cart);
+    }
+
+    /**
+     * Rebuilds the buffered adds from the journal: every "A" record that is not
+     * covered by a later "F" (flushed up to sequence N) record of the same customer.
+     */
+    private void replayJournal() {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        Map<Integer, List<String[]>> records = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(" ");
+                if (fields.length == 6 && "A".equals(fields[0])) {
+                    records.computeIfAbsent(Integer.valueOf(fields[1]), id -> new ArrayList<>()).add(fields);
+                } else if (fields.length == 3 && "F".equals(fields[0])) {
+                    long flushedUpTo = Long.parseLong(fields[2]);
+                    List<String[]> adds = records.get(Integer.valueOf(fields[1]));
+                    if (adds != null) {
+                        adds.removeIf(add -> Long.parseLong(add[5]) <= flushedUpTo);
+                    }
+                }
+                // anything else is a torn last line from a crash; skip it
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.error("Could not read cart journal {}", journalPath, e);
+        }
+
+        int replayed = 0;
+        for (Map.Entry<Integer, List<String[]>> customer : records.entrySet()) {
+            for (String[] add : customer.getValue()) {
+                PendingCart cart = pending.computeIfAbsent(customer.getKey(),
+                        id -> new PendingCart(Integer.parseInt(add[2])));
+                cart.quantities.merge(add[3], Integer.parseInt(add[4]), Integer::sum);
+                cart.lastSequence = Math.max(cart.lastSequence, Long.parseLong(add[5]));
+                sequence = Math.max(sequence, cart.lastSequence);
+                replayed++;
+            }
+        }
+        if (replayed > 0) {
+            log.warn("Recovered {} unwritten cart adds from the journal.", replayed);
+        }
+    }
+
+    /**
+     * Queues a journal record. Call while holding 'this'.
+     * @return The record's ticket, to pass to awaitJournal().
+     */
+    private long queueRecord(String record) {
+        journalQueue.add(record);
+        return ++recordsQueued;
+    }
+
+    /**
+     * Returns once the record with the given ticket is in the file. The first
+     * caller to get the journal lock writes all queued records in one go.
+     */
+    private void awaitJournal(long ticket) {
+        synchronized (journalLock) {
+            if (recordsWritten < ticket) {
+                writeQueuedRecords();
+            }
+        }
+    }
+
+    /**
+     * Appends every queued record and flushes once. Call while holding journalLock.
+     */
+    private void writeQueuedRecords() {
+        List<String> records;
+        long upTo;
+        synchronized (this) {
+            if (journalQueue.isEmpty()) {
+                return;
+            }
+            records = new ArrayList<>(journalQueue);
+            journalQueue.clear();
+            upTo = recordsQueued;
+        }
+        try {
+            if (journal == null) {
+                journal = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(journalPath,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+            }
+            for (String record : records) {
+                journal.write(record);
+                journal.write('\n');
+            }
+            journal.flush(); // into the OS, so it survives an application crash
+        } catch (IOException e) {
+            log.error("Could not write cart journal {}", journalPath, e);
+        }
+        recordsWritten = upTo;
+    }
+
+    private void truncateJournal() {
+        closeJournal();
+        try {
+            Files.newOutputStream(journalPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING).close();
+        } catch (IOException e) {
+            log.error("Could not empty cart journal {}", journalPath, e);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Could not close cart journal: {}", e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    /**
+     * The buffered adds of one customer.
+     */
+    private static final class PendingCart {
+        int orderId;
+        final Map<String, Integer> quantities = new LinkedHashMap<>();
+        long lastSequence;
+
+        PendingCart(int orderId) {
+            this.orderId = orderId;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bookstore.service;
+
+import com.bookstore.dao.OrderDAO;
+import com.bookstore.util.Log;
+import com.bookstore.util.ThrottledBatches;
+
+/**
+ * Removes abandoned carts.
+ *
+ * Every customer who opens the cart gets a "Pending" order, and nothing else ever
+ * deletes one that is not checked out. sweep() deletes the carts that have not
+ * changed for maxAgeDays, in throttled batches (see ThrottledBatches), so a large
+ * backlog is worked off over several runs instead of holding locks for long.
+ *
+ * A customer whose cart was swept simply gets a new one: the cart ID cached in
+ * the session is validated before use, and adds to a deleted cart report
+ * CART_CLOSED. Run by the "sweep-carts" background job.
+ */
+public final class CartSweeper {
+
+    private static final Log log = Log.getLog(CartSweeper.class);
+
+    private static final CartSweeper INSTANCE = new CartSweeper();
+
+    public static final int DEFAULT_MAX_AGE_DAYS = 30;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final long DEFAULT_PAUSE_MILLIS = 200;
+    public static final int DEFAULT_MAX_BATCHES_PER_RUN = 100;
+
+    private final OrderDAO orderDAO = new OrderDAO();
+    private final ThrottledBatches batches =
+            new ThrottledBatches(DEFAULT_BATCH_SIZE, DEFAULT_PAUSE_MILLIS, DEFAULT_MAX_BATCHES_PER_RUN);
+
+    private volatile int maxAgeDays = DEFAULT_MAX_AGE_DAYS;
+
+    private CartSweeper() {
+    }
+
+    public static CartSweeper getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Applies the age and rate limits. Called once at startup by AppContextListener.
+     */
+    public void configure(int maxAgeDays, int batchSize, long pauseMillis, int maxBatchesPerRun) {
+        this.maxAgeDays = Math.max(1, maxAgeDays);
+        batches.configure(batchSize, pauseMillis, maxBatchesPerRun);
+    }
+
+    /**
+     * Deletes abandoned carts until none are left or the run's batch limit is reached.
+     * @return The number of carts deleted.
+     */
+    public int sweep() {
+        int deleted = batches.run(() -> orderDAO.deleteAbandonedCarts(maxAgeDays, batches.getBatchSize()));
+        if (deleted > 0) {
+            log.info("Deleted {} carts unchanged for more than {} days.", deleted, maxAgeDays);
+        }
+        return deleted;
+    }
+
+    // --- Statistics ---
+
+    public int getMaxAgeDays() {
+        return maxAgeDays;
+    }
+
+    public long getRuns() {
+        return batches.getRuns();
+    }
+
+    public long getBatches() {
+        return batches.getBatches();
+    }
+
+    public long getCartsDeleted() {
+        return batches.getRows();
+    }
+
+    public int getLastRunDeleted() {
+        return batches.getLastRunRows();
+    }
+
+    public long getErrors() {
+        return batches.getErrors();
+    }
+}
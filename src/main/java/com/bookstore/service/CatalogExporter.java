@@ -0,0 +1,130 @@
+package com.bookstore.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Locale;
+
+import com.bookstore.dao.CatalogDAO;
+import com.bookstore.model.CatalogEntry;
+import com.bookstore.util.Log;
+
+/**
+ * Writes the catalog export (see CatalogDAO.exportCatalog) as CSV or NDJSON.
+ *
+ * Each row is written to the output as soon as it is read, so memory use is
+ * constant. The CSV columns are the same as the import format plus avg_rating,
+ * so an export can be imported again.
+ */
+public class CatalogExporter {
+
+    private static final Log log = Log.getLog(CatalogExporter.class);
+
+    private final CatalogDAO catalogDAO = new CatalogDAO();
+
+    /**
+     * @return The number of rows written, or -1 if the export failed part-way.
+     */
+    public long exportCsv(Writer out) throws IOException {
+        out.write("isbn,title,price,quantity,authors,avg_rating\n");
+        return export(out, entry -> {
+            StringBuilder line = new StringBuilder(128);
+            line.append(csv(entry.getIsbn())).append(',')
+                .append(csv(entry.getTitle())).append(',')
+                .append(entry.getPrice()).append(',')
+                .append(entry.getQuantityInStock()).append(',')
+                .append(csv(entry.getAuthors())).append(',');
+            if (entry.getAverageRating() != null) {
+                line.append(String.format(Locale.ROOT, "%.2f", entry.getAverageRating()));
+            }
+            return line.append('\n').toString();
+        });
+    }
+
+    /**
+     * Newline-delimited JSON: one JSON object per book, per line.
+     * @return The number of rows written, or -1 if the export failed part-way.
+     */
+    public long exportNdjson(Writer out) throws IOException {
+        return export(out, entry -> {
+            StringBuilder line = new StringBuilder(160);
+            line.append("{\"isbn\":").append(json(entry.getIsbn()))
+                .append(",\"title\":").append(json(entry.getTitle()))
+                .append(",\"price\":").append(entry.getPrice())
+                .append(",\"quantity\":").append(entry.getQuantityInStock())
+                .append(",\"authors\":[");
+            if (!entry.getAuthors().isEmpty()) {
+                String[] names = entry.getAuthors().split(";");
+                for (int i = 0; i < names.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    line.append(json(names[i]));
+                }
+            }
+            line.append("],\"avgRating\":")
+                .append(entry.getAverageRating() == null ? "null" : String.format(Locale.ROOT, "%.2f", entry.getAverageRating()))
+                .append("}\n");
+            return line.toString();
+        });
+    }
+
+    private interface LineFormat {
+        String format(CatalogEntry entry);
+    }
+
+    private long export(Writer out, LineFormat format) throws IOException {
+        try {
+            return catalogDAO.exportCatalog(entry -> {
+                try {
+                    out.write(format.format(entry));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("Export aborted, could not write to client: {}", e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Quotes a CSV field if it contains a comma, quote or line break.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * @return The value as a JSON string literal.
+     */
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
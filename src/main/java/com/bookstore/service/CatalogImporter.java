@@ -0,0 +1,224 @@
+package com.bookstore.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.bookstore.dao.BookDAO;
+import com.bookstore.dao.CatalogDAO;
+import com.bookstore.model.Book;
+import com.bookstore.model.ImportResult;
+import com.bookstore.util.CsvReader;
+import com.bookstore.util.Log;
+
+/**
+ * Streams a supplier catalog file into the database.
+ *
+ * Expected CSV columns (a header row is optional):
+ *   isbn,title,price,quantity,authors
+ * where 'authors' is a ';'-separated list of author names (may be empty).
+ *
+ * Rows are read one at a time, validated, and collected into chunks of CHUNK_SIZE.
+ * Each chunk is written by CatalogDAO.saveChunk in one transaction, so memory use
+ * does not grow with the file size and a bad chunk does not undo the earlier ones.
+ * Invalid rows are skipped and reported with their line number.
+ *
+ * Books of a saved chunk that were in the BookCache are reloaded together with
+ * BookDAO.findBooksByIsbns, so popular titles stay cached through an import
+ * instead of each missing on its next view.
+ */
+public class CatalogImporter {
+
+    private static final Log log = Log.getLog(CatalogImporter.class);
+
+    static final int CHUNK_SIZE = 1000;
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final Pattern ISBN = Pattern.compile("\\d{9}[\\dXx]|\\d{13}");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99"); // DECIMAL(10, 2)
+
+    private final CatalogDAO catalogDAO = new CatalogDAO();
+    private final BookDAO bookDAO = new BookDAO();
+    private final BookCache bookCache = BookCache.getInstance();
+    private final BookSearchIndex searchIndex = BookSearchIndex.getInstance();
+    private final InventoryService inventory = InventoryService.getInstance();
+
+    /**
+     * Imports every row of the CSV input.
+     * @param input The uploaded file, as a character stream.
+     * @return Counts, throughput and the rejected rows.
+     */
+    public ImportResult importCsv(Reader input) throws IOException {
+        ImportResult result = new ImportResult();
+        long start = System.currentTimeMillis();
+
+        Map<String, Integer> authorIds = catalogDAO.loadAuthorIds();
+        if (authorIds == null) {
+            result.addReject(0, "Could not read the existing authors; nothing was imported.");
+            return result;
+        }
+
+        Map<String, Book> chunk = new LinkedHashMap<>();
+        Map<String, List<String>> chunkAuthors = new LinkedHashMap<>();
+        long chunkFirstLine = 0;
+
+        try (CsvReader csv = new CsvReader(input)) {
+            List<String> fields;
+            boolean firstRecord = true;
+            while ((fields = csv.readRecord()) != null) {
+                long line = csv.getLineNumber();
+                if (firstRecord) {
+                    firstRecord = false;
+                    if (!fields.isEmpty() && "isbn".equalsIgnoreCase(fields.get(0).trim())) {
+                        continue; // header row
+                    }
+                }
+                if (fields.size() == 1 && fields.get(0).trim().isEmpty()) {
+                    continue; // blank line
+                }
+                result.addRowRead();
+
+                String problem = validate(fields);
+                if (problem != null) {
+                    result.addReject(line, problem);
+                    continue;
+                }
+
+                if (chunk.isEmpty()) {
+                    chunkFirstLine = line;
+                }
+                Book book = toBook(fields);
+                chunk.put(book.getIsbn(), book); // a repeated ISBN in the same chunk: last row wins
+                chunkAuthors.put(book.getIsbn(), parseAuthors(fields.size() > 4 ? fields.get(4) : ""));
+
+                if (chunk.size() >= CHUNK_SIZE) {
+                    saveChunk(chunk, chunkAuthors, authorIds, chunkFirstLine, line, result);
+                    logProgress(result, start);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                saveChunk(chunk, chunkAuthors, authorIds, chunkFirstLine, csv.getLineNumber(), result);
+            }
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Import finished: {} rows read, {} books imported, {} authors created, {} rejected, {} rows/s.",
+                result.getRowsRead(), result.getBooksImported(), result.getAuthorsCreated(),
+                result.getRejectCount(), result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * Writes one chunk and, if it committed, brings the cache and search index up to date.
+     */
+    private void saveChunk(Map<String, Book> chunk, Map<String, List<String>> chunkAuthors,
+                           Map<String, Integer> authorIds, long firstLine, long lastLine,
+                           ImportResult result) {
+        List<Book> books = new ArrayList<>(chunk.values());
+        List<String> newNames = new ArrayList<>();
+        for (List<String> names : chunkAuthors.values()) {
+            for (String name : names) {
+                if (!authorIds.containsKey(name) && !newNames.contains(name)) {
+                    newNames.add(name);
+                }
+            }
+        }
+
+        int created = catalogDAO.saveChunk(books, chunkAuthors, authorIds);
+        if (created < 0) {
+            result.addReject(firstLine, "Rows on lines " + firstLine + "-" + lastLine
+                    + " could not be saved and were rolled back (see server log).");
+        } else {
+            result.addBooksImported(books.size());
+            result.addAuthorsCreated(created);
+
+            for (String name : newNames) {
+                searchIndex.putAuthor(authorIds.get(name), name);
+            }
+            List<String> wasCached = new ArrayList<>();
+            for (Book book : books) {
+                if (bookCache.invalidate(book.getIsbn())) {
+                    wasCached.add(book.getIsbn());
+                }
+                inventory.invalidate(book.getIsbn());
+                searchIndex.putBook(book);
+                for (String name : chunkAuthors.get(book.getIsbn())) {
+                    searchIndex.linkAuthor(book.getIsbn(), authorIds.get(name));
+                }
+            }
+            if (!wasCached.isEmpty()) {
+                bookDAO.findBooksByIsbns(wasCached); // one query per chunk puts them back in the cache
+            }
+        }
+        chunk.clear();
+        chunkAuthors.clear();
+    }
+
+    /**
+     * @return A description of what is wrong with the row, or null if it is valid.
+     */
+    private String validate(List<String> fields) {
+        if (fields.size() < 4) {
+            return "Expected at least 4 columns (isbn,title,price,quantity), found " + fields.size() + ".";
+        }
+        String isbn = fields.get(0).trim();
+        if (!ISBN.matcher(isbn).matches()) {
+            return "Invalid ISBN '" + isbn + "' (must be 10 or 13 digits).";
+        }
+        String title = fields.get(1).trim();
+        if (title.isEmpty() || title.length() > MAX_TITLE_LENGTH) {
+            return "Title must be 1-" + MAX_TITLE_LENGTH + " characters.";
+        }
+        try {
+            BigDecimal price = new BigDecimal(fields.get(2).trim());
+            if (price.signum() < 0 || price.compareTo(MAX_PRICE) > 0 || price.scale() > 2) {
+                return "Invalid price '" + fields.get(2).trim() + "'.";
+            }
+        } catch (NumberFormatException e) {
+            return "Invalid price '" + fields.get(2).trim() + "'.";
+        }
+        try {
+            if (Integer.parseInt(fields.get(3).trim()) < 0) {
+                return "Quantity cannot be negative.";
+            }
+        } catch (NumberFormatException e) {
+            return "Invalid quantity '" + fields.get(3).trim() + "'.";
+        }
+        for (String name : parseAuthors(fields.size() > 4 ? fields.get(4) : "")) {
+            if (name.length() > 255) {
+                return "Author name is longer than 255 characters.";
+            }
+        }
+        return null;
+    }
+
+    private Book toBook(List<String> fields) {
+        return new Book(
+            fields.get(0).trim().toUpperCase(),
+            fields.get(1).trim(),
+            new BigDecimal(fields.get(2).trim()).doubleValue(),
+            Integer.parseInt(fields.get(3).trim())
+        );
+    }
+
+    private List<String> parseAuthors(String field) {
+        List<String> names = new ArrayList<>();
+        for (String name : field.split(";")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty() && !names.contains(trimmed)) {
+                names.add(trimmed);
+            }
+        }
+        return names;
+    }
+
+    private void logProgress(ImportResult result, long start) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        log.info("Import progress: {} rows read, {} books imported ({} rows/s).",
+                result.getRowsRead(), result.getBooksImported(), result.getRowsRead() * 1000 / elapsed);
+    }
+}
@@ -0,0 +1,261 @@
+package com.bookstore.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bookstore.dao.OrderDAO;
+import com.bookstore.util.Log;
+import com.bookstore.util.UnitOfWork;
+
+/**
+ * Optional group-commit checkout.
+ *
+ * Instead of every checkout running its own transaction (and waiting for its own
+ * log flush), checkouts are put on a bounded queue. One committer thread takes
+ * up to maxBatchSize of them, waiting at most maxWaitMillis for the batch to fill,
+ * and places them all in one transaction with OrderDAO.placeOrders. Each order is
+ * isolated by a savepoint, so one failed order does not fail the others.
+ * The request thread waits for its own order's result.
+ *
+ * When the queue is full, or no result arrives within RESULT_TIMEOUT_SECONDS while
+ * the checkout is still queued, it is placed directly on the request thread. Once
+ * the committer has taken a checkout, the request waits for that result. The request gives its pooled
+ * connection back before it waits, so waiting checkouts cannot starve the committer.
+ * Enabled by the checkout.groupCommit.* settings; started and stopped by
+ * AppContextListener.
+ */
+public final class CheckoutPipeline {
+
+    private static final Log log = Log.getLog(CheckoutPipeline.class);
+
+    private static final CheckoutPipeline INSTANCE = new CheckoutPipeline();
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 5;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /** Longest a request waits for the committer before placing its order itself. */
+    private static final long RESULT_TIMEOUT_SECONDS = 10;
+
+    private final OrderDAO orderDAO = new OrderDAO();
+
+    private volatile boolean enabled;
+    // Guards 'enabled' together with queue.offer(), so nothing is queued after shutdown() drained the queue
+    private final Object admission = new Object();
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_WAIT_MILLIS);
+
+    private BlockingQueue<Checkout> queue;
+    private Thread committer;
+
+    // --- Statistics ---
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong ordersPlaced = new AtomicLong();
+    private final AtomicLong ordersFailed = new AtomicLong();
+    private final AtomicLong queueFull = new AtomicLong();
+
+    private CheckoutPipeline() {
+    }
+
+    public static CheckoutPipeline getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Applies the settings and, if enabled, starts the committer thread.
+     * Called once at startup by AppContextListener.
+     */
+    public synchronized void start(boolean enabled, int maxBatchSize, long maxWaitMillis, int queueCapacity) {
+        if (!enabled || committer != null) {
+            return;
+        }
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        committer = new Thread(this::run, "checkout-committer");
+        committer.setDaemon(true);
+        committer.start();
+        synchronized (admission) {
+            this.enabled = true;
+        }
+        log.info("Group-commit checkout started: up to {} orders per transaction, {} ms max wait.",
+                this.maxBatchSize, maxWaitMillis);
+    }
+
+    /**
+     * Stops the committer thread. Checkouts still in the queue are placed
+     * one by one on the calling thread, so no waiting request is left hanging.
+     */
+    public synchronized void shutdown() {
+        if (committer == null) {
+            return;
+        }
+        synchronized (admission) {
+            enabled = false; // from here on, placeOrder() no longer queues
+        }
+        committer.interrupt();
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        committer = null;
+
+        List<Checkout> leftOver = new ArrayList<>();
+        queue.drainTo(leftOver);
+        for (Checkout checkout : leftOver) {
+            checkout.result.complete(orderDAO.placeOrder(checkout.orderId));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Places an order through the pipeline and waits for the result.
+     * @return true on success, false on failure (e.g., out of stock)
+     */
+    public boolean placeOrder(int orderId) {
+        // The committer borrows its own connection; don't hold this request's one while waiting for it
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.releaseConnection();
+        }
+
+        Checkout checkout = new Checkout(orderId);
+        boolean queued;
+        synchronized (admission) {
+            queued = enabled && queue.offer(checkout);
+            if (enabled && !queued) {
+                queueFull.incrementAndGet();
+            }
+        }
+        if (!queued) {
+            return orderDAO.placeOrder(orderId);
+        }
+        try {
+            return checkout.result.get(RESULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(checkout)) {
+                log.warn("No result for checkout of order {} after {} s, placing it directly.", orderId, RESULT_TIMEOUT_SECONDS);
+                return orderDAO.placeOrder(orderId);
+            }
+            // The committer already took it; its commit() always completes the result
+            return checkout.result.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for checkout of order {}", orderId);
+            if (queue.remove(checkout)) {
+                return false; // never attempted; the cart is still pending
+            }
+            return checkout.result.join();
+        } catch (ExecutionException e) {
+            log.error("Checkout of order {} failed", orderId, e.getCause());
+            return false;
+        }
+    }
+
+    // --- Statistics ---
+
+    public int getQueued() {
+        BlockingQueue<Checkout> current = queue;
+        return current == null ? 0 : current.size();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getOrdersPlaced() {
+        return ordersPlaced.get();
+    }
+
+    public long getOrdersFailed() {
+        return ordersFailed.get();
+    }
+
+    public long getQueueFull() {
+        return queueFull.get();
+    }
+
+    // --- Committer thread ---
+
+    private void run() {
+        List<Checkout> batch = new ArrayList<>(maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                // Shutting down; whatever was collected is still committed below
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds more checkouts to the batch until it is full or maxWaitNanos have passed.
+     */
+    private void collectBatch(List<Checkout> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                queue.drainTo(batch, maxBatchSize - batch.size()); // take what is already there
+                return;
+            }
+            Checkout next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<Checkout> batch) {
+        List<Integer> orderIds = new ArrayList<>(batch.size());
+        for (Checkout checkout : batch) {
+            orderIds.add(checkout.orderId);
+        }
+
+        Map<Integer, Boolean> results = new HashMap<>();
+        try {
+            results = orderDAO.placeOrders(orderIds);
+        } catch (RuntimeException e) {
+            log.error("Group checkout of {} orders failed", batch.size(), e);
+        } finally {
+            // Even if an Error escapes, no request is left waiting for its result
+            batches.incrementAndGet();
+            for (Checkout checkout : batch) {
+                boolean placed = Boolean.TRUE.equals(results.get(checkout.orderId));
+                (placed ? ordersPlaced : ordersFailed).incrementAndGet();
+                checkout.result.complete(placed);
+            }
+        }
+        log.debug("Committed a batch of {} checkouts.", batch.size());
+    }
+
+    private static final class Checkout {
+        final int orderId;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Checkout(int orderId) {
+            this.orderId = orderId;
+        }
+    }
+}
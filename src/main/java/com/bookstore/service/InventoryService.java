@@ -0,0 +1,366 @@
+package com.bookstore.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bookstore.dao.SqlLists;
+import com.bookstore.model.OrderItem;
+import com.bookstore.util.DatabaseConnection;
+import com.bookstore.util.Log;
+
+/**
+ * In-memory stock reservations, so adding a hot title to a cart does not
+ * queue up on its Books row during a launch.
+ *
+ * - For every book that has been added to a cart, the service keeps an "available"
+ *   counter: the stock from the Books table minus the copies currently reserved.
+ *   Reserving takes copies from it without a database round trip; the counter and the
+ *   book's reserved count change together under one of STRIPES small in-memory locks,
+ *   so reconcile() never sees one changed without the other.
+ * - A reservation belongs to one cart line (order + ISBN) and expires after the TTL;
+ *   expireReservations() then gives its copies back. Removing the line gives them
+ *   back at once; placing the order consumes them.
+ * - reconcile() re-reads the stock of all tracked books from the Books table in
+ *   batches and corrects the counters (admin edits, imports, missed updates).
+ *
+ * The counters are admission control only: OrderDAO.placeOrder still decrements
+ * the stock with a guarded UPDATE, which stays the final check. The counters live
+ * in this JVM, so only enable the service when the application runs on one server.
+ */
+public final class InventoryService {
+
+    private static final Log log = Log.getLog(InventoryService.class);
+
+    private static final InventoryService INSTANCE = new InventoryService();
+
+    public static final long DEFAULT_TTL_SECONDS = 900;
+
+    /** Number of locks the books are spread over (by ISBN hash). */
+    private static final int STRIPES = 64;
+
+    private volatile boolean enabled;
+    private volatile long ttlNanos = TimeUnit.SECONDS.toNanos(DEFAULT_TTL_SECONDS);
+
+    // ISBN -> copies that can still be reserved (stock minus reserved)
+    private final ConcurrentHashMap<String, AtomicInteger> available = new ConcurrentHashMap<>();
+    // ISBN -> copies held by unexpired reservations
+    private final ConcurrentHashMap<String, AtomicInteger> reserved = new ConcurrentHashMap<>();
+    // order ID -> ISBN -> reservation; every change to one order goes through compute() on its key
+    private final ConcurrentHashMap<Integer, Map<String, Reservation>> reservations = new ConcurrentHashMap<>();
+    // guards the 'available' and 'reserved' counters of the books that hash to it
+    private final Object[] stripes = new Object[STRIPES];
+
+    // --- Statistics ---
+    private final AtomicLong grants = new AtomicLong();
+    private final AtomicLong denials = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    private InventoryService() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public static InventoryService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Turns the service on or off and sets the reservation TTL.
+     * Called once at startup by AppContextListener.
+     */
+    public void configure(boolean enabled, long ttlSeconds) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserves 'quantity' more copies of a book for a cart line.
+     * Loads the book's stock from the database the first time it is reserved.
+     *
+     * @return true if the copies were reserved, false if not enough are available
+     *         (or the book does not exist).
+     */
+    public boolean reserve(int orderId, String isbn, int quantity) {
+        AtomicInteger counter = counterFor(isbn);
+        if (counter == null) {
+            denials.incrementAndGet();
+            return false;
+        }
+        synchronized (stripe(isbn)) {
+            if (counter.get() < quantity) {
+                denials.incrementAndGet();
+                return false;
+            }
+            counter.addAndGet(-quantity);
+            reservedCounter(isbn).addAndGet(quantity);
+        }
+
+        long expiresAt = System.nanoTime() + ttlNanos;
+        reservations.compute(orderId, (id, lines) -> {
+            Map<String, Reservation> result = lines != null ? lines : new HashMap<>();
+            Reservation line = result.get(isbn);
+            result.put(isbn, new Reservation(line == null ? quantity : line.quantity + quantity, expiresAt));
+            return result;
+        });
+        grants.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gives back the copies reserved for a cart line (the line was removed,
+     * or the database write that followed the reservation failed).
+     */
+    public void release(int orderId, String isbn) {
+        Reservation[] removed = new Reservation[1];
+        reservations.computeIfPresent(orderId, (id, lines) -> {
+            removed[0] = lines.remove(isbn);
+            return lines.isEmpty() ? null : lines;
+        });
+        if (removed[0] != null) {
+            giveBack(isbn, removed[0].quantity);
+        }
+    }
+
+    /**
+     * Gives back 'quantity' of the copies reserved for a cart line.
+     */
+    public void release(int orderId, String isbn, int quantity) {
+        int[] released = new int[1];
+        reservations.computeIfPresent(orderId, (id, lines) -> {
+            Reservation line = lines.get(isbn);
+            if (line != null) {
+                released[0] = Math.min(quantity, line.quantity);
+                if (line.quantity > released[0]) {
+                    lines.put(isbn, new Reservation(line.quantity - released[0], line.expiresAt));
+                } else {
+                    lines.remove(isbn);
+                }
+            }
+            return lines.isEmpty() ? null : lines;
+        });
+        if (released[0] > 0) {
+            giveBack(isbn, released[0]);
+        }
+    }
+
+    /**
+     * Called after an order has been placed (and the Books table decremented):
+     * its reservations are used up instead of going back to the pool. Copies that
+     * were bought without a live reservation (it had expired) are taken from the pool.
+     */
+    public void confirm(int orderId, List<OrderItem> items) {
+        Map<String, Reservation> lines = reservations.remove(orderId);
+        for (OrderItem item : items) {
+            Reservation line = lines == null ? null : lines.get(item.getIsbn());
+            int heldCopies = line == null ? 0 : line.quantity;
+            synchronized (stripe(item.getIsbn())) {
+                if (heldCopies > 0) {
+                    reservedCounter(item.getIsbn()).addAndGet(-heldCopies);
+                }
+                AtomicInteger counter = available.get(item.getIsbn());
+                if (counter != null && item.getQuantity() != heldCopies) {
+                    counter.addAndGet(heldCopies - item.getQuantity());
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets the stock of a book, so the next reservation reloads it from the
+     * database. Called after the stock was changed directly (admin edit, import).
+     */
+    public void invalidate(String isbn) {
+        available.remove(isbn);
+    }
+
+    // --- Maintenance (run by the background jobs) ---
+
+    /**
+     * Gives back the copies of every reservation whose TTL has passed.
+     * @return The number of cart lines whose reservation expired.
+     */
+    public int expireReservations() {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (Integer orderId : reservations.keySet()) {
+            Map<String, Integer> released = new HashMap<>();
+            reservations.computeIfPresent(orderId, (id, lines) -> {
+                lines.entrySet().removeIf(line -> {
+                    if (now - line.getValue().expiresAt >= 0) {
+                        released.put(line.getKey(), line.getValue().quantity);
+                        return true;
+                    }
+                    return false;
+                });
+                return lines.isEmpty() ? null : lines;
+            });
+            for (Map.Entry<String, Integer> line : released.entrySet()) {
+                giveBack(line.getKey(), line.getValue());
+            }
+            expired += released.size();
+        }
+        if (expired > 0) {
+            expirations.addAndGet(expired);
+            log.debug("Expired {} stock reservations.", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Re-reads the stock of every tracked book, SqlLists.MAX_IN_LIST books per query,
+     * and sets its counter to stock minus reserved copies.
+     * Books that no longer exist are dropped.
+     */
+    public void reconcile() {
+        List<String> isbns = new ArrayList<>(available.keySet());
+        if (isbns.isEmpty()) {
+            return;
+        }
+        int corrected = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Map<String, Integer> stock = loadStock(conn, isbns);
+            for (String isbn : isbns) {
+                Integer inStock = stock.get(isbn);
+                if (inStock == null) {
+                    available.remove(isbn);
+                    continue;
+                }
+                // Reserved count and counter are read and set together, so no reservation slips in between
+                synchronized (stripe(isbn)) {
+                    AtomicInteger counter = available.get(isbn);
+                    int target = inStock - reservedCounter(isbn).get();
+                    if (counter != null && counter.getAndSet(target) != target) {
+                        corrected++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.error("SQL Error reconciling inventory: {}", e.getMessage(), e);
+            return;
+        }
+        if (corrected > 0) {
+            log.info("Inventory reconciled: {} of {} books corrected.", corrected, isbns.size());
+        }
+    }
+
+    // --- Statistics ---
+
+    public int getTrackedBookCount() {
+        return available.size();
+    }
+
+    public int getReservedCartCount() {
+        return reservations.size();
+    }
+
+    public long getGrants() {
+        return grants.get();
+    }
+
+    public long getDenials() {
+        return denials.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    // --- Internals ---
+
+    /**
+     * @return The book's counter, loading its stock on first use, or null if the
+     *         book does not exist or could not be loaded.
+     */
+    private AtomicInteger counterFor(String isbn) {
+        AtomicInteger counter = available.get(isbn);
+        if (counter != null) {
+            return counter;
+        }
+        Integer inStock;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            inStock = loadStock(conn, List.of(isbn)).get(isbn);
+        } catch (SQLException e) {
+            log.error("SQL Error loading stock of {}", isbn, e);
+            return null;
+        }
+        if (inStock == null) {
+            return null;
+        }
+        synchronized (stripe(isbn)) {
+            return available.computeIfAbsent(isbn, key -> new AtomicInteger(inStock - reservedCounter(key).get()));
+        }
+    }
+
+    private Object stripe(String isbn) {
+        return stripes[Math.floorMod(isbn.hashCode(), stripes.length)];
+    }
+
+    private AtomicInteger reservedCounter(String isbn) {
+        return reserved.computeIfAbsent(isbn, key -> new AtomicInteger());
+    }
+
+    private void giveBack(String isbn, int quantity) {
+        synchronized (stripe(isbn)) {
+            reservedCounter(isbn).addAndGet(-quantity);
+            AtomicInteger counter = available.get(isbn);
+            if (counter != null) {
+                counter.addAndGet(quantity);
+            }
+        }
+    }
+
+    /**
+     * @return ISBN -> stock for the given books, loaded SqlLists.MAX_IN_LIST per query.
+     */
+    private static Map<String, Integer> loadStock(Connection conn, List<String> isbns) throws SQLException {
+        Map<String, Integer> stock = new HashMap<>();
+        Set<String> requested = new HashSet<>(isbns);
+        for (List<String> chunk : SqlLists.chunks(isbns, SqlLists.MAX_IN_LIST)) {
+            List<String> values = SqlLists.padded(chunk);
+            String sql = "SELECT isbn, quantity_in_stock FROM Books WHERE isbn IN (" +
+                         SqlLists.placeholders(values.size()) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (String isbn : values) {
+                    pstmt.setString(index++, isbn);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String isbn = rs.getString("isbn");
+                        if (requested.contains(isbn)) {
+                            stock.put(isbn, rs.getInt("quantity_in_stock"));
+                        }
+                    }
+                }
+            }
+        }
+        return stock;
+    }
+
+    private static final class Reservation {
+        final int quantity;
+        final long expiresAt;
+
+        Reservation(int quantity, long expiresAt) {
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.bookstore.service;
+
+import com.bookstore.dao.OrderDAO;
+import com.bookstore.util.Log;
+import com.bookstore.util.ThrottledBatches;
+
+/**
+ * Moves old finished orders out of the hot tables.
+ *
+ * Orders and OrderItems are read and written by every cart request, so they (and
+ * their indexes) should stay small enough to be kept in memory by the database.
+ * archive() moves "Placed" and "Delivered" orders older than horizonDays to
+ * OrdersArchive and OrderItemsArchive with OrderDAO.archiveOrders, one transaction
+ * per batch, in throttled batches (see ThrottledBatches), so a large backlog is
+ * moved over several runs. Orders still being fulfilled stay where they are.
+ *
+ * The order history reads both tables, so archived orders stay visible to customers.
+ * Run by the "archive-orders" background job.
+ */
+public final class OrderArchiver {
+
+    private static final Log log = Log.getLog(OrderArchiver.class);
+
+    private static final OrderArchiver INSTANCE = new OrderArchiver();
+
+    public static final int DEFAULT_HORIZON_DAYS = 180;
+    public static final int DEFAULT_BATCH_SIZE = 200;
+    public static final long DEFAULT_PAUSE_MILLIS = 500;
+    public static final int DEFAULT_MAX_BATCHES_PER_RUN = 50;
+
+    /** OrderDAO.archiveOrders moves at most this many orders per call. */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    private final OrderDAO orderDAO = new OrderDAO();
+    private final ThrottledBatches batches =
+            new ThrottledBatches(DEFAULT_BATCH_SIZE, DEFAULT_PAUSE_MILLIS, DEFAULT_MAX_BATCHES_PER_RUN);
+
+    private volatile int horizonDays = DEFAULT_HORIZON_DAYS;
+
+    private OrderArchiver() {
+    }
+
+    public static OrderArchiver getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Applies the horizon and rate limits. Called once at startup by AppContextListener.
+     */
+    public void configure(int horizonDays, int batchSize, long pauseMillis, int maxBatchesPerRun) {
+        this.horizonDays = Math.max(1, horizonDays);
+        batches.configure(Math.min(MAX_BATCH_SIZE, batchSize), pauseMillis, maxBatchesPerRun);
+    }
+
+    /**
+     * Archives old orders until none are left or the run's batch limit is reached.
+     * @return The number of orders archived.
+     */
+    public int archive() {
+        int archived = batches.run(() -> orderDAO.archiveOrders(horizonDays, batches.getBatchSize()));
+        if (archived > 0) {
+            log.info("Archived {} orders older than {} days.", archived, horizonDays);
+        }
+        return archived;
+    }
+
+    // --- Statistics ---
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    public long getRuns() {
+        return batches.getRuns();
+    }
+
+    public long getBatches() {
+        return batches.getBatches();
+    }
+
+    public long getOrdersArchived() {
+        return batches.getRows();
+    }
+
+    public int getLastRunArchived() {
+        return batches.getLastRunRows();
+    }
+
+    public long getErrors() {
+        return batches.getErrors();
+    }
+}
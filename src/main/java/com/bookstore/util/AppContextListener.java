@@ -0,0 +1,149 @@
+package com.bookstore.util;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import com.bookstore.dao.OrderDAO;
+import com.bookstore.dao.ReviewDAO;
+import com.bookstore.service.BookCache;
+import com.bookstore.service.BookSearchIndex;
+import com.bookstore.service.CartStore;
+import com.bookstore.service.CartSweeper;
+import com.bookstore.service.CheckoutPipeline;
+import com.bookstore.service.InventoryService;
+import com.bookstore.service.OrderArchiver;
+
+/**
+ * Starts and stops application-wide resources together with the web application.
+ *
+ * On startup it reads the context params from web.xml and configures
+ * logging, the database connection pool, the book cache, inventory reservations,
+ * group-commit checkout and the write-behind cart, then builds the search index
+ * in the background and schedules the background jobs (rating rebuilds, cart total checks,
+ * abandoned cart sweeps, order archiving, ...). On shutdown it closes them again.
+ */
+@WebListener
+public class AppContextListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServletContext context = event.getServletContext();
+        Properties settings = readSettings(context);
+
+        Log.configure(
+            Log.Level.valueOf(settings.getProperty("log.level", "INFO").toUpperCase()),
+            Integer.parseInt(settings.getProperty("log.bufferSize", "8192"))
+        );
+        DatabaseConnection.configure(settings);
+        BookCache.getInstance().configure(
+            Integer.parseInt(settings.getProperty("cache.books.maxSize", String.valueOf(BookCache.DEFAULT_MAX_SIZE))),
+            Long.parseLong(settings.getProperty("cache.books.ttlSeconds", String.valueOf(BookCache.DEFAULT_TTL_SECONDS)))
+        );
+        InventoryService inventory = InventoryService.getInstance();
+        inventory.configure(
+            Boolean.parseBoolean(settings.getProperty("inventory.reservations.enabled", "false")),
+            Long.parseLong(settings.getProperty("inventory.reservationTtlSeconds", String.valueOf(InventoryService.DEFAULT_TTL_SECONDS)))
+        );
+
+        CheckoutPipeline.getInstance().start(
+            Boolean.parseBoolean(settings.getProperty("checkout.groupCommit.enabled", "false")),
+            Integer.parseInt(settings.getProperty("checkout.groupCommit.maxBatchSize", String.valueOf(CheckoutPipeline.DEFAULT_MAX_BATCH_SIZE))),
+            Long.parseLong(settings.getProperty("checkout.groupCommit.maxWaitMillis", String.valueOf(CheckoutPipeline.DEFAULT_MAX_WAIT_MILLIS))),
+            Integer.parseInt(settings.getProperty("checkout.groupCommit.queueCapacity", String.valueOf(CheckoutPipeline.DEFAULT_QUEUE_CAPACITY)))
+        );
+
+        CartStore cartStore = CartStore.getInstance();
+        if ("write-behind".equalsIgnoreCase(settings.getProperty("cart.mode", "direct"))) {
+            String journalFile = settings.getProperty("cart.journalFile", "");
+            Path journalPath = journalFile.isEmpty()
+                    ? Paths.get(System.getProperty("java.io.tmpdir"), "bookstore-cart.journal")
+                    : Paths.get(journalFile);
+            cartStore.start(journalPath);
+        }
+
+        // Searches use SQL until the index is ready, so startup does not wait for it.
+        Thread indexBuilder = new Thread(BookSearchIndex.getInstance()::rebuild, "search-index-builder");
+        indexBuilder.setDaemon(true);
+        indexBuilder.start();
+
+        BackgroundJobs.start();
+        long ratingsInterval = Long.parseLong(settings.getProperty("ratings.rebuildIntervalMinutes", "1440"));
+        if (ratingsInterval > 0) {
+            ReviewDAO reviewDAO = new ReviewDAO();
+            BackgroundJobs.schedule("rebuild-ratings", reviewDAO::rebuildRatings,
+                    ratingsInterval, ratingsInterval, TimeUnit.MINUTES);
+        }
+        long totalsInterval = Long.parseLong(settings.getProperty("orders.verifyTotalsIntervalMinutes", "60"));
+        if (totalsInterval > 0) {
+            OrderDAO orderDAO = new OrderDAO();
+            BackgroundJobs.schedule("verify-order-totals", orderDAO::verifyOrderTotals,
+                    totalsInterval, totalsInterval, TimeUnit.MINUTES);
+        }
+        long sweepInterval = Long.parseLong(settings.getProperty("orders.cartSweep.intervalMinutes", "60"));
+        if (sweepInterval > 0) {
+            CartSweeper sweeper = CartSweeper.getInstance();
+            sweeper.configure(
+                Integer.parseInt(settings.getProperty("orders.cartSweep.maxAgeDays", String.valueOf(CartSweeper.DEFAULT_MAX_AGE_DAYS))),
+                Integer.parseInt(settings.getProperty("orders.cartSweep.batchSize", String.valueOf(CartSweeper.DEFAULT_BATCH_SIZE))),
+                Long.parseLong(settings.getProperty("orders.cartSweep.pauseMillis", String.valueOf(CartSweeper.DEFAULT_PAUSE_MILLIS))),
+                Integer.parseInt(settings.getProperty("orders.cartSweep.maxBatchesPerRun", String.valueOf(CartSweeper.DEFAULT_MAX_BATCHES_PER_RUN)))
+            );
+            BackgroundJobs.schedule("sweep-carts", sweeper::sweep,
+                    sweepInterval, sweepInterval, TimeUnit.MINUTES);
+        }
+        long archiveInterval = Long.parseLong(settings.getProperty("orders.archive.intervalMinutes", "1440"));
+        if (archiveInterval > 0) {
+            OrderArchiver archiver = OrderArchiver.getInstance();
+            archiver.configure(
+                Integer.parseInt(settings.getProperty("orders.archive.horizonDays", String.valueOf(OrderArchiver.DEFAULT_HORIZON_DAYS))),
+                Integer.parseInt(settings.getProperty("orders.archive.batchSize", String.valueOf(OrderArchiver.DEFAULT_BATCH_SIZE))),
+                Long.parseLong(settings.getProperty("orders.archive.pauseMillis", String.valueOf(OrderArchiver.DEFAULT_PAUSE_MILLIS))),
+                Integer.parseInt(settings.getProperty("orders.archive.maxBatchesPerRun", String.valueOf(OrderArchiver.DEFAULT_MAX_BATCHES_PER_RUN)))
+            );
+            BackgroundJobs.schedule("archive-orders", archiver::archive,
+                    archiveInterval, archiveInterval, TimeUnit.MINUTES);
+        }
+        if (inventory.isEnabled()) {
+            long reconcileInterval = Long.parseLong(settings.getProperty("inventory.reconcileIntervalSeconds", "30"));
+            BackgroundJobs.scheduleFrequent("inventory-reconcile", () -> {
+                inventory.expireReservations();
+                inventory.reconcile();
+            }, reconcileInterval, reconcileInterval, TimeUnit.SECONDS);
+        }
+        if (cartStore.isEnabled()) {
+            long flushInterval = Long.parseLong(settings.getProperty("cart.flushIntervalSeconds", "10"));
+            BackgroundJobs.scheduleFrequent("flush-carts", cartStore::flushAll,
+                    flushInterval, flushInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        CheckoutPipeline.getInstance().shutdown(); // places any queued checkouts first
+        CartStore.getInstance().shutdown(); // writes buffered cart adds while the pool is still open
+        BackgroundJobs.shutdown();
+        DatabaseConnection.shutdown();
+        Log.shutdown(); // last, so the shutdown messages above are written out
+    }
+
+    /**
+     * Copies every context param into a Properties object.
+     */
+    private Properties readSettings(ServletContext context) {
+        Properties settings = new Properties();
+        Enumeration<String> names = context.getInitParameterNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            settings.setProperty(name, context.getInitParameter(name).trim());
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,252 @@
+package com.bookstore.util;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous ring-buffer appender behind Log.
+ *
+ * Request threads only copy their message fields into a pre-allocated slot
+ * of a fixed-size ring (a few field writes under a short lock, no I/O).
+ * A single daemon writer thread drains the ring, formats the "{}" placeholders
+ * and writes the lines to stdout/stderr.
+ *
+ * If the ring is full, the message is dropped and counted rather than making
+ * the request wait; the writer reports how many were dropped.
+ */
+class AsyncAppender {
+
+    static final int DEFAULT_CAPACITY = 8192;
+    private static final int DRAIN_BATCH = 256;
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final Event[] ring;
+    private long head; // next slot to write
+    private long tail; // next slot to read
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private boolean writerWaiting;
+    private volatile boolean running = true;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private long droppedReported;
+
+    private final Thread writer;
+
+    AsyncAppender(int capacity) {
+        this.ring = new Event[Math.max(16, capacity)];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Event();
+        }
+        this.writer = new Thread(this::writeLoop, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    int getCapacity() {
+        return ring.length;
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Copies one message into the ring. Never blocks on I/O.
+     */
+    void append(Log.Level level, String logger, String pattern,
+                Object arg1, Object arg2, Object[] args, Throwable error) {
+        lock.lock();
+        try {
+            if (!running || head - tail == ring.length) {
+                dropped.incrementAndGet();
+                return;
+            }
+            Event slot = ring[(int) (head % ring.length)];
+            slot.timestamp = System.currentTimeMillis();
+            slot.level = level;
+            slot.logger = logger;
+            slot.thread = Thread.currentThread().getName();
+            slot.pattern = pattern;
+            slot.arg1 = arg1;
+            slot.arg2 = arg2;
+            slot.args = args;
+            slot.error = error;
+            head++;
+            if (writerWaiting) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages, lets the writer flush what is left, and waits for it.
+     */
+    void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Writer thread ---
+
+    private void writeLoop() {
+        Event[] batch = new Event[DRAIN_BATCH];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new Event();
+        }
+        StringBuilder line = new StringBuilder(256);
+
+        while (true) {
+            int count = 0;
+            boolean stop = false;
+            lock.lock();
+            try {
+                while (head == tail && running) {
+                    writerWaiting = true;
+                    try {
+                        notEmpty.await(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        running = false;
+                    }
+                    writerWaiting = false;
+                }
+                // Copy out of the ring so the lock is not held while writing.
+                while (tail != head && count < batch.length) {
+                    Event slot = ring[(int) (tail % ring.length)];
+                    batch[count++].copyFrom(slot);
+                    slot.clear(); // drop references so arguments can be garbage collected
+                    tail++;
+                }
+                stop = !running && head == tail;
+            } finally {
+                lock.unlock();
+            }
+
+            for (int i = 0; i < count; i++) {
+                write(batch[i], line);
+                batch[i].clear();
+            }
+            reportDropped();
+            System.out.flush();
+
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    private void write(Event event, StringBuilder line) {
+        line.setLength(0);
+        TIMESTAMP.formatTo(Instant.ofEpochMilli(event.timestamp), line);
+        line.append(' ').append(event.level.name());
+        if (event.level.name().length() == 4) {
+            line.append(' ');
+        }
+        line.append(" [").append(event.thread).append("] [").append(event.logger).append("] ");
+        format(event, line);
+
+        PrintStream out = event.level.compareTo(Log.Level.WARN) >= 0 ? System.err : System.out;
+        out.println(line);
+        if (event.error != null) {
+            event.error.printStackTrace(out);
+        }
+    }
+
+    /**
+     * Replaces each "{}" in the pattern with the next argument.
+     */
+    private static void format(Event event, StringBuilder line) {
+        String pattern = event.pattern;
+        if (pattern == null) {
+            line.append("null");
+            return;
+        }
+        int argIndex = 0;
+        int start = 0;
+        int marker;
+        while ((marker = pattern.indexOf("{}", start)) >= 0) {
+            line.append(pattern, start, marker);
+            line.append(argument(event, argIndex++));
+            start = marker + 2;
+        }
+        line.append(pattern, start, pattern.length());
+    }
+
+    private static Object argument(Event event, int index) {
+        if (event.args != null) {
+            return index < event.args.length ? event.args[index] : "{}";
+        }
+        if (index == 0) {
+            return event.arg1;
+        }
+        if (index == 1) {
+            return event.arg2;
+        }
+        return "{}";
+    }
+
+    private void reportDropped() {
+        long total = dropped.get();
+        if (total > droppedReported) {
+            System.err.println("[Log] " + (total - droppedReported) + " log messages dropped (buffer full).");
+            droppedReported = total;
+        }
+    }
+
+    /**
+     * One pre-allocated ring slot.
+     */
+    private static final class Event {
+        long timestamp;
+        Log.Level level;
+        String logger;
+        String thread;
+        String pattern;
+        Object arg1;
+        Object arg2;
+        Object[] args;
+        Throwable error;
+
+        void copyFrom(Event other) {
+            timestamp = other.timestamp;
+            level = other.level;
+            logger = other.logger;
+            thread = other.thread;
+            pattern = other.pattern;
+            arg1 = other.arg1;
+            arg2 = other.arg2;
+            args = other.args;
+            error = other.error;
+        }
+
+        void clear() {
+            logger = null;
+            thread = null;
+            pattern = null;
+            arg1 = null;
+            arg2 = null;
+            args = null;
+            error = null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.bookstore.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared schedulers for periodic background jobs.
+ *
+ * Maintenance jobs (rating rebuilds, cart sweeps, ...) run on a single daemon
+ * thread, one at a time, so a heavy job never competes with another one for
+ * database connections. Short jobs that must run on time (write-behind flushes, ...)
+ * are scheduled with scheduleFrequent() on a second thread, so a long maintenance
+ * run cannot hold them back. Started and stopped by AppContextListener.
+ */
+public final class BackgroundJobs {
+
+    private static final Log log = Log.getLog(BackgroundJobs.class);
+
+    private static ScheduledExecutorService scheduler;
+    private static ScheduledExecutorService frequentScheduler;
+
+    private BackgroundJobs() {
+    }
+
+    public static synchronized void start() {
+        if (scheduler == null) {
+            scheduler = newScheduler("background-jobs");
+            frequentScheduler = newScheduler("frequent-jobs");
+        }
+    }
+
+    /**
+     * Runs 'job' every 'period', starting after 'initialDelay'.
+     * An exception is logged and does not cancel later runs.
+     */
+    public static synchronized void schedule(String name, Runnable job, long initialDelay, long period, TimeUnit unit) {
+        schedule(scheduler, name, job, initialDelay, period, unit);
+    }
+
+    /**
+     * Like schedule(), but for short jobs with a latency bound: they run on their
+     * own thread and never wait for a maintenance job to finish.
+     */
+    public static synchronized void scheduleFrequent(String name, Runnable job, long initialDelay, long period, TimeUnit unit) {
+        schedule(frequentScheduler, name, job, initialDelay, period, unit);
+    }
+
+    /**
+     * Stops the schedulers, waiting briefly for running jobs to finish.
+     */
+    public static synchronized void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        frequentScheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            frequentScheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        frequentScheduler = null;
+    }
+
+    // --- Internals ---
+
+    private static ScheduledExecutorService newScheduler(String threadName) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void schedule(ScheduledExecutorService executor, String name, Runnable job,
+            long initialDelay, long period, TimeUnit unit) {
+        if (executor == null) {
+            throw new IllegalStateException("Background jobs have not been started.");
+        }
+        executor.scheduleWithFixedDelay(() -> {
+            long start = System.nanoTime();
+            try {
+                job.run();
+                log.debug("Job '{}' finished in {} ms.", name, (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                log.error("Job '{}' failed", name, e);
+            }
+        }, initialDelay, period, unit);
+        log.info("Scheduled job '{}' every {} {}.", name, period, unit.toString().toLowerCase());
+    }
+}
@@ -0,0 +1,472 @@
+package com.bookstore.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A small bounded JDBC connection pool.
+ *
+ * Physical connections are opened lazily (up to maxSize) and handed out wrapped
+ * in a proxy whose close() puts them back in the pool instead of closing the socket.
+ * This means the DAOs can keep using try-with-resources exactly as before.
+ *
+ * - Idle connections are validated before they are handed out again.
+ * - A background thread closes connections that have been idle for longer than
+ *   idleTimeout, but never shrinks the pool below minSize.
+ * - If every connection is in use, borrow() waits up to borrowTimeout and then fails.
+ * - Each physical connection keeps its own StatementCache, so prepareStatement()
+ *   with the same SQL reuses the already-prepared statement.
+ */
+public class ConnectionPool {
+
+    private static final Log log = Log.getLog(ConnectionPool.class);
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionReturned = lock.newCondition();
+
+    // Most recently returned connection is at the head (LIFO keeps hot connections hot).
+    private final Deque<PhysicalConnection> idleConnections = new ArrayDeque<>();
+    private int openCount; // physical connections currently open (idle + borrowed)
+    private boolean closed;
+
+    private final ScheduledExecutorService maintenance;
+
+    // --- Statistics ---
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    public ConnectionPool(String jdbcUrl, String user, String password,
+                          int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis,
+                          int validationTimeoutSeconds, int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000L, idleTimeoutMillis / 2);
+        maintenance.scheduleWithFixedDelay(this::maintain, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool. The caller MUST close() it to return it.
+     * @return A pooled Connection.
+     * @throws SQLException if no connection becomes available within the borrow timeout,
+     *         or if a new connection cannot be opened.
+     */
+    public Connection borrow() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PhysicalConnection physical = null;
+            boolean openNew = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool has been shut down.");
+                    }
+                    physical = idleConnections.pollFirst();
+                    if (physical != null) {
+                        break;
+                    }
+                    if (openCount < maxSize) {
+                        openCount++; // reserve the slot before opening outside the lock
+                        openNew = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                                + " ms waiting for a database connection (pool max size " + maxSize + ").");
+                    }
+                    try {
+                        connectionReturned.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (openNew) {
+                try {
+                    physical = openPhysicalConnection();
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+                borrowCount.incrementAndGet();
+                return wrap(physical);
+            }
+
+            // Validation-on-borrow: an idle connection may have been dropped by the server.
+            if (isUsable(physical)) {
+                borrowCount.incrementAndGet();
+                return wrap(physical);
+            }
+            log.warn("Discarding broken idle connection.");
+            discard(physical);
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the maintenance thread.
+     * Borrowed connections are closed as they are returned.
+     */
+    public void shutdown() {
+        maintenance.shutdownNow();
+        List<PhysicalConnection> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            toClose.addAll(idleConnections);
+            openCount -= idleConnections.size();
+            idleConnections.clear();
+            connectionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(toClose);
+        log.info("Shut down. Closed {} idle connections.", toClose.size());
+    }
+
+    // --- Internals ---
+
+    private PhysicalConnection openPhysicalConnection() throws SQLException {
+        Connection conn = DriverManager.getConnection(jdbcUrl, user, password);
+        createdCount.incrementAndGet();
+        return new PhysicalConnection(conn, new StatementCache(conn, statementCacheSize));
+    }
+
+    private boolean isUsable(PhysicalConnection physical) {
+        try {
+            return !physical.connection.isClosed() && physical.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Called by the proxy when a borrowed connection is closed by the DAO.
+     * Resets any per-borrower state so the next borrower gets a clean connection.
+     */
+    private void release(PhysicalConnection physical) {
+        Connection conn = physical.connection;
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback(); // never leak an open transaction to the next borrower
+                conn.setAutoCommit(true);
+            }
+            if (conn.isReadOnly()) {
+                conn.setReadOnly(false);
+            }
+            conn.clearWarnings();
+        } catch (SQLException e) {
+            log.warn("Could not reset returned connection, discarding it: {}", e.getMessage());
+            discard(physical);
+            return;
+        }
+
+        boolean closeIt = false;
+        lock.lock();
+        try {
+            if (closed) {
+                openCount--;
+                closeIt = true;
+            } else {
+                physical.idleSince = System.currentTimeMillis();
+                idleConnections.addFirst(physical);
+                connectionReturned.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (closeIt) {
+            closeQuietly(List.of(physical));
+        }
+    }
+
+    /**
+     * Gives up a slot (and closes the physical connection, if any).
+     */
+    private void discard(PhysicalConnection physical) {
+        lock.lock();
+        try {
+            openCount--;
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (physical != null) {
+            closeQuietly(List.of(physical));
+        }
+    }
+
+    /**
+     * Periodic task: evicts connections idle for longer than idleTimeout
+     * (oldest first), then tops the pool back up to minSize.
+     */
+    private void maintain() {
+        List<PhysicalConnection> evicted = new ArrayList<>();
+        int toOpen = 0;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+            Iterator<PhysicalConnection> oldestFirst = idleConnections.descendingIterator();
+            while (oldestFirst.hasNext() && openCount > minSize) {
+                PhysicalConnection idle = oldestFirst.next();
+                if (idle.idleSince > cutoff) {
+                    break;
+                }
+                oldestFirst.remove();
+                openCount--;
+                evicted.add(idle);
+            }
+            if (openCount < minSize) {
+                toOpen = minSize - openCount;
+                openCount += toOpen;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        closeQuietly(evicted);
+        if (!evicted.isEmpty()) {
+            log.debug("Evicted {} idle connections.", evicted.size());
+        }
+
+        for (int i = 0; i < toOpen; i++) {
+            try {
+                PhysicalConnection physical = openPhysicalConnection();
+                boolean poolClosed;
+                lock.lock();
+                try {
+                    poolClosed = closed;
+                    if (poolClosed) {
+                        openCount--;
+                    } else {
+                        physical.idleSince = System.currentTimeMillis();
+                        idleConnections.addLast(physical);
+                        connectionReturned.signal();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (poolClosed) {
+                    closeQuietly(List.of(physical));
+                    return;
+                }
+            } catch (SQLException e) {
+                log.warn("Could not open connection to reach minimum pool size: {}", e.getMessage());
+                discard(null);
+            }
+        }
+    }
+
+    private static void closeQuietly(List<PhysicalConnection> connections) {
+        for (PhysicalConnection physical : connections) {
+            physical.statements.clear();
+            try {
+                physical.connection.close();
+            } catch (SQLException e) {
+                // Already broken; nothing more to do.
+            }
+        }
+    }
+
+    private Connection wrap(PhysicalConnection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PooledConnectionHandler(physical));
+    }
+
+    // --- Statistics ---
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getOpenCount() {
+        lock.lock();
+        try {
+            return openCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idleConnections.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public long getStatementCacheHits() {
+        return StatementCache.HITS.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return StatementCache.MISSES.get();
+    }
+
+    public long getStatementCacheEvictions() {
+        return StatementCache.EVICTIONS.get();
+    }
+
+    /**
+     * A physical connection plus the state that lives as long as it does.
+     */
+    private static final class PhysicalConnection {
+        final Connection connection;
+        final StatementCache statements;
+        long idleSince;
+
+        PhysicalConnection(Connection connection, StatementCache statements) {
+            this.connection = connection;
+            this.statements = statements;
+        }
+    }
+
+    /**
+     * Prepares a statement on a pooled connection, through its StatementCache, for a
+     * caller that wraps the pooled connection (UnitOfWork): the statement's
+     * getConnection() then returns the wrapper, not the pooled connection.
+     */
+    static PreparedStatement prepareStatement(Connection pooled, Connection owner, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        if (Proxy.isProxyClass(pooled.getClass())
+                && Proxy.getInvocationHandler(pooled) instanceof PooledConnectionHandler) {
+            PooledConnectionHandler handler = (PooledConnectionHandler) Proxy.getInvocationHandler(pooled);
+            if (handler.returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            return handler.physical.statements.prepare(owner, sql, autoGeneratedKeys);
+        }
+        return pooled.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    /**
+     * Forwards every call to the physical connection, except:
+     * - close(), which returns the connection to the pool, and
+     * - prepareStatement(sql) / prepareStatement(sql, autoGeneratedKeys),
+     *   which go through the connection's StatementCache.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private boolean returned;
+
+        PooledConnectionHandler(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical.connection + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            if (method.getName().equals("prepareStatement")) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return physical.statements.prepare((Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return physical.statements.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(physical.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
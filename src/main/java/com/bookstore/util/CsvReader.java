@@ -0,0 +1,114 @@
+package com.bookstore.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV records one at a time from a stream (RFC 4180: comma separated,
+ * fields may be wrapped in double quotes, "" inside quotes is a literal quote,
+ * and quoted fields may contain commas and line breaks).
+ *
+ * Only the current record is held in memory, so files of any size can be read.
+ */
+public class CsvReader implements AutoCloseable {
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long lineNumber = 1;   // line the next record starts on
+    private long recordStartLine;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return The fields of the next record, or null at the end of the input.
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        recordStartLine = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordStartLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c < 0) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread();
+                    }
+                }
+                if (c >= 0) {
+                    lineNumber++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return The line number (1-based) on which the last returned record started.
+     */
+    public long getLineNumber() {
+        return recordStartLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private void unread() {
+        if (position > 0) {
+            position--;
+        }
+    }
+}
@@ -1,41 +1,114 @@
 package com.bookstore.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 /**
  * DatabaseConnection Utility
  *
- * This class provides a static method to get a connection to the 
+ * This class provides a static method to get a connection to the
  * MySQL database. We will use this in all our DAO classes.
+ *
+ * Connections come from a shared ConnectionPool, so closing them (e.g. at the end
+ * of a try-with-resources block) hands them back to the pool instead of
+ * tearing down the TCP connection.
+ *
+ * The pool is configured from the "db.*" context params in web.xml
+ * (see AppContextListener). The constants below are only the defaults.
  */
 public class DatabaseConnection {
 
+    private static final Log log = Log.getLog(DatabaseConnection.class);
 
-    private static final String JDBC_URL = "jdbc:mysql://localhost:3306/bookstore_db?useSSL=false&allowPublicKeyRetrieval=true";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "mysql_pass";
+    // --- Defaults (overridden by web.xml context params) ---
+    private static final String DEFAULT_JDBC_URL = "jdbc:mysql://localhost:3306/bookstore_db?useSSL=false&allowPublicKeyRetrieval=true&useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
+    private static final String DEFAULT_DB_USER = "root";
+    private static final String DEFAULT_DB_PASSWORD = "mysql_pass";
+    private static final int DEFAULT_POOL_MIN_SIZE = 2;
+    private static final int DEFAULT_POOL_MAX_SIZE = 20;
+    private static final long DEFAULT_POOL_IDLE_TIMEOUT_MS = 300_000L;
+    private static final long DEFAULT_POOL_BORROW_TIMEOUT_MS = 5_000L;
+    private static final int DEFAULT_POOL_VALIDATION_TIMEOUT_SEC = 2;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
     // ------------------------------------
 
+    private static volatile ConnectionPool pool;
+
     /**
-     * Attempts to get a connection to the database.
+     * (Re)creates the connection pool from the given settings.
+     * Missing keys fall back to the defaults above.
+     */
+    public static synchronized void configure(Properties settings) {
+        loadDriver();
+        if (pool != null) {
+            pool.shutdown();
+        }
+        pool = new ConnectionPool(
+            settings.getProperty("db.url", DEFAULT_JDBC_URL),
+            settings.getProperty("db.user", DEFAULT_DB_USER),
+            settings.getProperty("db.password", DEFAULT_DB_PASSWORD),
+            Integer.parseInt(settings.getProperty("db.pool.minSize", String.valueOf(DEFAULT_POOL_MIN_SIZE))),
+            Integer.parseInt(settings.getProperty("db.pool.maxSize", String.valueOf(DEFAULT_POOL_MAX_SIZE))),
+            Long.parseLong(settings.getProperty("db.pool.idleTimeoutMs", String.valueOf(DEFAULT_POOL_IDLE_TIMEOUT_MS))),
+            Long.parseLong(settings.getProperty("db.pool.borrowTimeoutMs", String.valueOf(DEFAULT_POOL_BORROW_TIMEOUT_MS))),
+            Integer.parseInt(settings.getProperty("db.pool.validationTimeoutSec", String.valueOf(DEFAULT_POOL_VALIDATION_TIMEOUT_SEC))),
+            Integer.parseInt(settings.getProperty("db.pool.statementCacheSize", String.valueOf(DEFAULT_STATEMENT_CACHE_SIZE)))
+        );
+        log.info("Connection pool configured.");
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing it returns it to the pool.
+     *
+     * If a UnitOfWork is active on this thread (i.e. we are inside a web request),
+     * the request's shared connection is returned instead, and closing it does nothing.
      * @return A Connection object.
-     * @throws SQLException if a database access error occurs.
+     * @throws SQLException if a database access error occurs, or no connection
+     *         became available within the borrow timeout.
      */
     public static Connection getConnection() throws SQLException {
-        
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            return unitOfWork.getConnection();
+        }
+        return getPool().borrow();
+    }
+
+    /**
+     * Returns the shared pool, creating it with default settings if
+     * configure() was never called (e.g. when running main() below).
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DatabaseConnection.class) {
+            if (pool == null) {
+                configure(new Properties());
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Closes all pooled connections. Called when the web application is stopped.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private static void loadDriver() {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (ClassNotFoundException e) {
-            System.err.println("MySQL JDBC Driver not found.");
-            e.printStackTrace();
-            throw new SQLException("MySQL JDBC Driver not found.", e);
+            log.error("MySQL JDBC Driver not found.", e);
+            throw new IllegalStateException("MySQL JDBC Driver not found.", e);
         }
-        
-        // Etablish the connection
-        Connection conn = DriverManager.getConnection(JDBC_URL, DB_USER, DB_PASSWORD);
-        return conn;
     }
 
     /**
@@ -44,7 +117,7 @@ public class DatabaseConnection {
     public static void main(String[] args) {
         System.out.println("Attempting to connect to database...");
         try (Connection conn = getConnection()) {
-            
+
             if (conn != null && !conn.isClosed()) {
                 System.out.println("Connection Successful!");
                 System.out.println("Database Product: " + conn.getMetaData().getDatabaseProductName());
@@ -52,10 +125,12 @@ public class DatabaseConnection {
             } else {
                 System.err.println("Connection failed!");
             }
-            
+
         } catch (SQLException e) {
             System.err.println("Connection failed! Check your URL, username, and password.");
             e.printStackTrace();
+        } finally {
+            shutdown();
         }
     }
 }
@@ -0,0 +1,163 @@
+package com.bookstore.util;
+
+import java.util.function.Supplier;
+
+/**
+ * A tiny logging facade used by all DAOs, servlets and background components.
+ *
+ * Usage:
+ *   private static final Log log = Log.getLog(BookDAO.class);
+ *   log.info("Found {} books.", bookList.size());
+ *   log.debug("---> Found book: {}", book.getTitle());
+ *
+ * - Messages below the configured level return immediately, before any
+ *   string is built. The one- and two-argument overloads avoid even the varargs array,
+ *   so a disabled log call inside a ResultSet loop allocates nothing.
+ * - The "{}" placeholders are filled in by the AsyncAppender's writer thread,
+ *   not by the request thread, and request threads never block on console I/O.
+ *
+ * The level is the "log.level" context param in web.xml (DEBUG, INFO, WARN, ERROR).
+ */
+public final class Log {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static volatile Level threshold = Level.INFO;
+    private static volatile AsyncAppender appender = new AsyncAppender(AsyncAppender.DEFAULT_CAPACITY);
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return A logger whose lines are tagged with the class's simple name, e.g. "[BookDAO]".
+     */
+    public static Log getLog(Class<?> type) {
+        return new Log(type.getSimpleName());
+    }
+
+    /**
+     * Applies the level and buffer size. Called once at startup by AppContextListener.
+     */
+    public static synchronized void configure(Level level, int bufferSize) {
+        threshold = level;
+        if (bufferSize != appender.getCapacity()) {
+            AsyncAppender old = appender;
+            appender = new AsyncAppender(bufferSize);
+            old.shutdown();
+        }
+    }
+
+    /**
+     * Writes out everything still buffered and stops the writer thread.
+     */
+    public static synchronized void shutdown() {
+        appender.shutdown();
+    }
+
+    public static long getDroppedCount() {
+        return appender.getDroppedCount();
+    }
+
+    public boolean isDebugEnabled() {
+        return Level.DEBUG.compareTo(threshold) >= 0;
+    }
+
+    private static boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    // --- DEBUG ---
+
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG)) {
+            appender.append(Level.DEBUG, name, message, null, null, null, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg) {
+        if (isEnabled(Level.DEBUG)) {
+            appender.append(Level.DEBUG, name, pattern, arg, null, null, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) {
+            appender.append(Level.DEBUG, name, pattern, arg1, arg2, null, null);
+        }
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            appender.append(Level.DEBUG, name, message.get(), null, null, null, null);
+        }
+    }
+
+    // --- INFO ---
+
+    public void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            appender.append(Level.INFO, name, message, null, null, null, null);
+        }
+    }
+
+    public void info(String pattern, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            appender.append(Level.INFO, name, pattern, arg, null, null, null);
+        }
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) {
+            appender.append(Level.INFO, name, pattern, arg1, arg2, null, null);
+        }
+    }
+
+    public void info(String pattern, Object... args) {
+        if (isEnabled(Level.INFO)) {
+            appender.append(Level.INFO, name, pattern, null, null, args, null);
+        }
+    }
+
+    // --- WARN ---
+
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            appender.append(Level.WARN, name, message, null, null, null, null);
+        }
+    }
+
+    public void warn(String pattern, Object arg) {
+        if (isEnabled(Level.WARN)) {
+            appender.append(Level.WARN, name, pattern, arg, null, null, null);
+        }
+    }
+
+    public void warn(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) {
+            appender.append(Level.WARN, name, pattern, arg1, arg2, null, null);
+        }
+    }
+
+    public void warn(String pattern, Object... args) {
+        if (isEnabled(Level.WARN)) {
+            appender.append(Level.WARN, name, pattern, null, null, args, null);
+        }
+    }
+
+    // --- ERROR (always enabled) ---
+
+    public void error(String message) {
+        appender.append(Level.ERROR, name, message, null, null, null, null);
+    }
+
+    public void error(String message, Throwable error) {
+        appender.append(Level.ERROR, name, message, null, null, null, error);
+    }
+
+    public void error(String pattern, Object arg, Throwable error) {
+        appender.append(Level.ERROR, name, pattern, arg, null, null, error);
+    }
+}
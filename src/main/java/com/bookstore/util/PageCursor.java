@@ -0,0 +1,68 @@
+package com.bookstore.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used for keyset pagination.
+ *
+ * A cursor holds the sort-key values of the row at a page boundary
+ * (e.g. the title and ISBN of the last book on the page), packed into one
+ * URL-safe Base64 string so it can be put in a link as-is.
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private PageCursor() {
+    }
+
+    /**
+     * @param parts The sort-key values, in ORDER BY order.
+     * @return A URL-safe cursor string.
+     */
+    public static String encode(String... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                joined.append(SEPARATOR);
+            }
+            joined.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joined.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a "size" request parameter.
+     * @return The size, limited to 1..maxSize, or defaultSize if it is missing or not a number.
+     */
+    public static int parsePageSize(String size, int defaultSize, int maxSize) {
+        if (size == null) {
+            return defaultSize;
+        }
+        try {
+            return Math.max(1, Math.min(maxSize, Integer.parseInt(size.trim())));
+        } catch (NumberFormatException e) {
+            return defaultSize;
+        }
+    }
+
+    /**
+     * @param cursor A cursor created by encode().
+     * @param expectedParts How many sort-key values the cursor must contain.
+     * @return The sort-key values, or null if the cursor is missing or malformed.
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = joined.split(String.valueOf(SEPARATOR), -1);
+            return parts.length == expectedParts ? parts : null;
+        } catch (IllegalArgumentException e) {
+            return null; // not valid Base64, e.g. a hand-edited URL
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.bookstore.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An LRU cache of PreparedStatements for ONE physical connection.
+ *
+ * With server-side prepared statements enabled (useServerPrepStmts=true), MySQL
+ * parses and plans a statement when it is prepared. Keeping the statement open
+ * and handing it out again means that cost is paid once per connection instead
+ * of once per DAO call.
+ *
+ * The DAOs get a proxy whose close() clears the parameters and puts the
+ * statement back in the cache instead of closing it.
+ *
+ * A connection is only ever used by one thread at a time, so the cache itself
+ * is not synchronized. The hit/miss/eviction counters are shared by all caches.
+ */
+class StatementCache {
+
+    static final AtomicLong HITS = new AtomicLong();
+    static final AtomicLong MISSES = new AtomicLong();
+    static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private final Connection physical;
+    private final int capacity;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int capacity) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true); // access order = LRU
+    }
+
+    /**
+     * Returns a cached statement for this SQL, or prepares (and caches) a new one.
+     * @param owner The connection the caller is using: returned by the statement's
+     *              getConnection() until the caller closes the statement again.
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS.
+     */
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        if (capacity <= 0) {
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        String key = autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.inUse) {
+            HITS.incrementAndGet();
+            cached.inUse = true;
+            cached.owner = owner; // this borrower's connection, not the one it was first prepared for
+            return cached.proxy;
+        }
+
+        MISSES.incrementAndGet();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+
+        if (cached != null) {
+            // The same SQL is already open on this connection (nested use);
+            // hand out a plain statement that really closes.
+            return statement;
+        }
+
+        cached = new CachedStatement(key, statement);
+        cached.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new CachedStatementHandler(cached));
+        cached.inUse = true;
+        cached.owner = owner;
+        statements.put(key, cached);
+        evictOverflow();
+        return cached.proxy;
+    }
+
+    /**
+     * Closes every cached statement. Called before the physical connection is closed.
+     */
+    void clear() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> leastRecentlyUsed = statements.values().iterator();
+        while (statements.size() > capacity && leastRecentlyUsed.hasNext()) {
+            CachedStatement cached = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            EVICTIONS.incrementAndGet();
+            cached.evicted = true;
+            if (!cached.inUse) {
+                closeQuietly(cached.statement);
+            }
+            // If it is in use, it is closed when the DAO returns it.
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Nothing to do; the statement is being thrown away anyway.
+        }
+    }
+
+    private static final class CachedStatement {
+        final String key;
+        final PreparedStatement statement;
+        PreparedStatement proxy;
+        Connection owner; // the current borrower's connection; null while the statement is in the cache
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(String key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Forwards every call to the real statement, except close(),
+     * which resets it and marks it as available again.
+     */
+    private final class CachedStatementHandler implements InvocationHandler {
+        private final CachedStatement cached;
+
+        CachedStatementHandler(CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    returnToCache();
+                    return null;
+                case "isClosed":
+                    return !cached.inUse || cached.statement.isClosed();
+                case "getConnection":
+                    return cached.owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void returnToCache() {
+            if (!cached.inUse) {
+                return;
+            }
+            cached.inUse = false;
+            cached.owner = null;
+            if (cached.evicted) {
+                closeQuietly(cached.statement);
+                return;
+            }
+            try {
+                // Close whatever the DAO left open, so the next user starts clean.
+                ResultSet openResults = cached.statement.getResultSet();
+                if (openResults != null) {
+                    openResults.close();
+                }
+                cached.statement.clearParameters();
+                cached.statement.clearBatch();
+                cached.statement.clearWarnings();
+            } catch (SQLException e) {
+                // A broken statement must not be reused.
+                cached.evicted = true;
+                statements.remove(cached.key, cached);
+                closeQuietly(cached.statement);
+            }
+        }
+    }
+}
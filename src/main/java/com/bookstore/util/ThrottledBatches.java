@@ -0,0 +1,105 @@
+package com.bookstore.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs a maintenance job as a series of small batches, for background jobs that
+ * work off a backlog (cart sweeps, order archiving) without holding locks for long.
+ *
+ * run() calls the batch until it returns fewer than batchSize rows, fails (returns
+ * a negative count) or maxBatchesPerRun batches have run, pausing pauseMillis between
+ * two batches. A large backlog is therefore spread over several runs.
+ * Also keeps the job's statistics.
+ */
+public final class ThrottledBatches {
+
+    private volatile int batchSize;
+    private volatile long pauseMillis;
+    private volatile int maxBatchesPerRun;
+
+    // --- Statistics ---
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile int lastRunRows;
+
+    public ThrottledBatches(int batchSize, long pauseMillis, int maxBatchesPerRun) {
+        configure(batchSize, pauseMillis, maxBatchesPerRun);
+    }
+
+    public void configure(int batchSize, long pauseMillis, int maxBatchesPerRun) {
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMillis = Math.max(0, pauseMillis);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batch Processes up to getBatchSize() rows; returns how many, or -1 on an error.
+     * @return The number of rows processed in this run.
+     */
+    public int run(IntSupplier batch) {
+        int total = 0;
+        for (int count = 0; count < maxBatchesPerRun; count++) {
+            if (count > 0 && !pause()) {
+                break; // shutting down
+            }
+            int done = batch.getAsInt();
+            if (done < 0) {
+                errors.incrementAndGet();
+                break;
+            }
+            batches.incrementAndGet();
+            total += done;
+            if (done < batchSize) {
+                break; // nothing left
+            }
+        }
+        runs.incrementAndGet();
+        rows.addAndGet(total);
+        lastRunRows = total;
+        return total;
+    }
+
+    // --- Statistics ---
+
+    public long getRuns() {
+        return runs.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public int getLastRunRows() {
+        return lastRunRows;
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    // --- Internals ---
+
+    /**
+     * @return false if the thread was interrupted (the background jobs are stopping).
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
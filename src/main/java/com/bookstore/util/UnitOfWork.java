@@ -0,0 +1,173 @@
+package com.bookstore.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A request-scoped unit of work.
+ *
+ * While a UnitOfWork is bound to the current thread (see UnitOfWorkFilter),
+ * DatabaseConnection.getConnection() hands every DAO the SAME pooled connection,
+ * so one page uses one connection for all of its queries.
+ *
+ * The connection is borrowed lazily on the first getConnection() call, so requests
+ * that never touch the database (CSS, static pages) never borrow one.
+ * The DAOs still close() what they get; for the shared connection that is a no-op,
+ * and the real connection goes back to the pool when the unit of work is closed.
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private static final Log log = Log.getLog(UnitOfWork.class);
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private Connection connection;   // the pooled connection (null until first use)
+    private Connection sharedView;   // what the DAOs get: same connection, but close() does nothing
+    private boolean closed;
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Starts a unit of work and binds it to the current thread.
+     */
+    public static UnitOfWork begin() {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("A unit of work is already active on this thread.");
+        }
+        UnitOfWork unitOfWork = new UnitOfWork();
+        CURRENT.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    /**
+     * @return The unit of work bound to the current thread, or null if there is none.
+     */
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the shared connection, borrowing it from the pool on first use.
+     */
+    Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Unit of work has already been closed.");
+        }
+        if (connection == null) {
+            connection = DatabaseConnection.getPool().borrow();
+            sharedView = (Connection) Proxy.newProxyInstance(
+                    UnitOfWork.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new SharedConnectionHandler(connection));
+        }
+        return sharedView;
+    }
+
+    /**
+     * Starts a read-only transaction on the shared connection, so every query
+     * that follows sees the same consistent snapshot (InnoDB REPEATABLE READ).
+     * The snapshot ends when the unit of work is closed.
+     *
+     * Only use this for pages that do not write anything.
+     */
+    public void beginReadSnapshot() {
+        try {
+            Connection conn = getConnection();
+            if (conn.getAutoCommit()) {
+                conn.setReadOnly(true);
+                conn.setAutoCommit(false);
+            }
+        } catch (SQLException e) {
+            // The page still works without a snapshot, just without the consistency guarantee.
+            log.warn("Could not start read snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the connection to the pool early, e.g. before the request waits for
+     * another thread that needs a connection of its own. The unit of work stays
+     * bound; the next getConnection() borrows a connection again.
+     * Ends any open read snapshot, so only call it between transactions.
+     */
+    public void releaseConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.error("Error releasing connection: {}", e.getMessage(), e);
+            }
+            connection = null;
+            sharedView = null;
+        }
+    }
+
+    /**
+     * Returns the connection to the pool (which also ends any open
+     * read snapshot) and unbinds this unit of work from the thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        CURRENT.remove();
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.error("Error releasing connection: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Forwards every call to the pooled connection, except close(); cached
+     * statements are prepared so that their getConnection() returns the shared view.
+     */
+    private static final class SharedConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        SharedConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    return null; // released by UnitOfWork.close()
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SharedConnection[" + target + "]";
+                case "prepareStatement":
+                    Class<?>[] types = method.getParameterTypes();
+                    if (types.length == 1) {
+                        return ConnectionPool.prepareStatement(target, (Connection) proxy, (String) args[0],
+                                Statement.NO_GENERATED_KEYS);
+                    }
+                    if (types.length == 2 && types[1] == int.class) {
+                        return ConnectionPool.prepareStatement(target, (Connection) proxy, (String) args[0],
+                                (Integer) args[1]);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
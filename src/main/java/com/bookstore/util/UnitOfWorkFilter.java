@@ -0,0 +1,37 @@
+package com.bookstore.util;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds a UnitOfWork to every request, so all DAO calls made while handling
+ * the request share one database connection. The connection is returned to
+ * the pool when the request is finished, even if it failed.
+ */
+@WebFilter("/*")
+public class UnitOfWorkFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        // Forwards/includes run on the same thread, so only the outer request binds one.
+        if (UnitOfWork.current() != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        UnitOfWork unitOfWork = UnitOfWork.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            unitOfWork.close();
+        }
+    }
+}
@@ -47,6 +47,19 @@
             background-color: #dc3545; /* Red */
             color: white;
         }
+        .pager {
+            width: 80%;
+            display: flex;
+            justify-content: space-between;
+            margin-top: 15px;
+        }
+        .pager a {
+            text-decoration: none;
+            padding: 6px 12px;
+            border-radius: 4px;
+            border: 1px solid #007bff;
+            color: #007bff;
+        }
         .add-button {
             text-decoration: none;
             padding: 8px 15px;
@@ -95,6 +108,7 @@
                         <th>Author ID</th>
                         <th>Name</th>
                         <th>Bio (excerpt)</th>
+                        <th>Books</th>
                         <th>Actions</th>
                     </tr>
                 </thead>
@@ -111,6 +125,8 @@
         						</div>
                             </td>
                             
+                            <td><c:out value="${author.bookCount}" /></td>
+                            
                             <td class="actions-cell">
                                 <a href="${pageContext.request.contextPath}/editAuthor?id=${author.authorId}" class="edit-link">Edit</a>
                                 <a href="${pageContext.request.contextPath}/deleteAuthor?id=${author.authorId}" class="delete-link" 
@@ -122,5 +138,29 @@
             </table>
         </c:if>
 
+        <!-- Prev / Next links for the paginated author directory -->
+        <c:if test="${not empty authorPage and (authorPage.hasPrev or authorPage.hasNext)}">
+            <div class="pager">
+                <span>
+                    <c:if test="${authorPage.hasPrev}">
+                        <c:url var="prevUrl" value="/authorList">
+                            <c:param name="before" value="${authorPage.prevCursor}" />
+                            <c:param name="size" value="${authorPage.pageSize}" />
+                        </c:url>
+                        <a href="${prevUrl}">&laquo; Prev</a>
+                    </c:if>
+                </span>
+                <span>
+                    <c:if test="${authorPage.hasNext}">
+                        <c:url var="nextUrl" value="/authorList">
+                            <c:param name="after" value="${authorPage.nextCursor}" />
+                            <c:param name="size" value="${authorPage.pageSize}" />
+                        </c:url>
+                        <a href="${nextUrl}">Next &raquo;</a>
+                    </c:if>
+                </span>
+            </div>
+        </c:if>
+
     </div> </body>
 </html>
\ No newline at end of file
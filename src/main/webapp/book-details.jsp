@@ -7,7 +7,7 @@
 <html>
 <head>
     <meta charset="UTF-8">
-    <title><c:out value="${book.title}" /></title>
+    <title><c:out value="${details.book.title}" /></title>
     <link rel="stylesheet" href="${pageContext.request.contextPath}/css/style.css">
     <style>
         .details-container {
@@ -75,6 +75,38 @@
             margin-top: 15px;
         }
 
+        /* --- STAR HISTOGRAM --- */
+        .histogram {
+            max-width: 400px;
+            margin: 0 auto 20px auto;
+        }
+        .histogram-row {
+            display: flex;
+            align-items: center;
+            gap: 8px;
+            font-size: 0.9rem;
+            color: #555;
+            margin-bottom: 4px;
+        }
+        .histogram-label {
+            width: 50px;
+        }
+        .histogram-bar {
+            flex: 1;
+            height: 12px;
+            background-color: #eee;
+            border-radius: 3px;
+            overflow: hidden;
+        }
+        .histogram-fill {
+            height: 100%;
+            background-color: #ffc107;
+        }
+        .histogram-count {
+            width: 30px;
+            text-align: right;
+        }
+
         /* --- REVIEW SECTION STYLES --- */
         .review-section {
             margin-top: 40px;
@@ -154,24 +186,24 @@
 
     <div class="details-container">
         
-        <c:if test="${empty book}">
+        <c:if test="${empty details}">
             <h1>Book Not Found</h1>
             <p>The book you requested could not be found.</p>
         </c:if>
         
-        <c:if test="${not empty book}">
-            <h1><c:out value="${book.title}" /></h1>
+        <c:if test="${not empty details}">
+            <h1><c:out value="${details.book.title}" /></h1>
             
             <!-- AVERAGE RATING HEADER -->
             <div class="rating-header">
                 <c:choose>
-                    <c:when test="${reviewCount > 0}">
+                    <c:when test="${details.reviewCount > 0}">
                         <span style="font-size: 1.5rem;">
-                            <fmt:formatNumber value="${avgRating}" maxFractionDigits="1" /> / 5
+                            <fmt:formatNumber value="${details.averageRating}" maxFractionDigits="1" /> / 5
                         </span>
                         <span>&#9733;</span> <!-- Star Icon -->
                         <span style="color: #666; font-size: 1rem; margin-left: 10px;">
-                            (<c:out value="${reviewCount}" /> reviews)
+                            (<c:out value="${details.reviewCount}" /> reviews)
                         </span>
                     </c:when>
                     <c:otherwise>
@@ -180,18 +212,31 @@
                 </c:choose>
             </div>
 
+            <!-- STAR DISTRIBUTION -->
+            <c:if test="${details.reviewCount > 0}">
+                <div class="histogram">
+                    <c:forEach var="bar" items="${details.ratingSummary.histogram}">
+                        <div class="histogram-row">
+                            <span class="histogram-label"><c:out value="${bar.stars}" /> &#9733;</span>
+                            <div class="histogram-bar"><div class="histogram-fill" style="width: ${bar.percent}%;"></div></div>
+                            <span class="histogram-count"><c:out value="${bar.count}" /></span>
+                        </div>
+                    </c:forEach>
+                </div>
+            </c:if>
+
             <h3>By:
-                <c:if test="${empty authors}">Unknown Author</c:if>
-                <c:forEach var="author" items="${authors}" varStatus="status">
+                <c:if test="${empty details.authors}">Unknown Author</c:if>
+                <c:forEach var="author" items="${details.authors}" varStatus="status">
                     <c:out value="${author.authorName}" />
                     <c:if test="${not status.last}">, </c:if>
                 </c:forEach>
             </h3>
             
             <ul>
-                <li><strong>ISBN:</strong> <c:out value="${book.isbn}" /></li>
-                <li><strong>Price:</strong> $<c:out value="${book.price}" /></li>
-                <li><strong>Quantity in Stock:</strong> <c:out value="${book.quantityInStock}" /></li>
+                <li><strong>ISBN:</strong> <c:out value="${details.book.isbn}" /></li>
+                <li><strong>Price:</strong> $<c:out value="${details.book.price}" /></li>
+                <li><strong>Quantity in Stock:</strong> <c:out value="${details.book.quantityInStock}" /></li>
             </ul>
             
             <!-- CART SECTION -->
@@ -201,8 +246,7 @@
                         <p class="stock-error">Could not add to cart: Not enough items in stock.</p>
                     </c:if>
                     <form action="${pageContext.request.contextPath}/cart?action=add" method="post">
-                        <input type="hidden" name="isbn" value="<c:out value='${book.isbn}' />" />
-                        <input type="hidden" name="price" value="<c:out value='${book.price}' />" />
+                        <input type="hidden" name="isbn" value="<c:out value='${details.book.isbn}' />" />
                         <button type="submit" class="cart-button">Add to Cart</button>
                     </form>
                 </div>
@@ -212,22 +256,19 @@
             <div class="review-section">
                 <h2>Customer Reviews</h2>
 
-                <!-- 1. LIST ALL REVIEWS -->
-                <c:forEach var="review" items="${reviews}">
-                    <div class="review-card">
-                        <div class="review-header">
-                            <strong><c:out value="${review.customerName}" /></strong>
-                            <span><fmt:formatDate value="${review.reviewDate}" pattern="MMM d, yyyy" /></span>
-                        </div>
-                        <div class="star-rating">
-                            <c:forEach begin="1" end="${review.rating}">&#9733;</c:forEach>
-                            <c:forEach begin="${review.rating + 1}" end="5">&#9734;</c:forEach>
-                        </div>
-                        <p><c:out value="${review.reviewText}" /></p>
-                    </div>
-                </c:forEach>
+                <!-- 1. LIST REVIEWS (first page; the rest are loaded on demand) -->
+                <div id="review-list">
+                    <c:set var="reviewList" value="${details.reviews}" />
+                    <%@ include file="common/review-cards.jspf" %>
+                </div>
+                
+                <c:if test="${details.moreReviews}">
+                    <button type="button" id="load-more-reviews" class="btn-submit"
+                            data-next-cursor="<c:out value='${details.reviewsNextCursor}' />"
+                            onclick="loadMoreReviews()">Load more reviews</button>
+                </c:if>
                 
-                <c:if test="${empty reviews}">
+                <c:if test="${empty details.reviews}">
                     <p>Be the first to review this book!</p>
                 </c:if>
 
@@ -246,24 +287,24 @@
                             
                             <c:choose>
                                 <%-- User has ALREADY reviewed this book (Edit Mode) --%>
-                                <c:when test="${not empty userReview}">
+                                <c:when test="${not empty details.userReview}">
                                     <h3>Edit Your Review</h3>
                                     <form action="${pageContext.request.contextPath}/review" method="post">
                                         <input type="hidden" name="action" value="edit" />
-                                        <input type="hidden" name="reviewId" value="${userReview.reviewId}" />
-                                        <input type="hidden" name="isbn" value="${book.isbn}" />
+                                        <input type="hidden" name="reviewId" value="${details.userReview.reviewId}" />
+                                        <input type="hidden" name="isbn" value="${details.book.isbn}" />
                                         
                                         <label for="rating">Rating:</label>
                                         <select name="rating" required>
-                                            <option value="5" ${userReview.rating == 5 ? 'selected' : ''}>5 - Excellent</option>
-                                            <option value="4" ${userReview.rating == 4 ? 'selected' : ''}>4 - Very Good</option>
-                                            <option value="3" ${userReview.rating == 3 ? 'selected' : ''}>3 - Good</option>
-                                            <option value="2" ${userReview.rating == 2 ? 'selected' : ''}>2 - Fair</option>
-                                            <option value="1" ${userReview.rating == 1 ? 'selected' : ''}>1 - Poor</option>
+                                            <option value="5" ${details.userReview.rating == 5 ? 'selected' : ''}>5 - Excellent</option>
+                                            <option value="4" ${details.userReview.rating == 4 ? 'selected' : ''}>4 - Very Good</option>
+                                            <option value="3" ${details.userReview.rating == 3 ? 'selected' : ''}>3 - Good</option>
+                                            <option value="2" ${details.userReview.rating == 2 ? 'selected' : ''}>2 - Fair</option>
+                                            <option value="1" ${details.userReview.rating == 1 ? 'selected' : ''}>1 - Poor</option>
                                         </select>
                                         
                                         <label for="reviewText">Review:</label>
-                                        <textarea name="reviewText" rows="4" required><c:out value="${userReview.reviewText}" /></textarea>
+                                        <textarea name="reviewText" rows="4" required><c:out value="${details.userReview.reviewText}" /></textarea>
                                         
                                         <button type="submit" class="btn-submit btn-edit">Update Review</button>
                                     </form>
@@ -271,8 +312,8 @@
                                     <!-- Delete Button -->
                                     <form action="${pageContext.request.contextPath}/review" method="post" style="display:inline;">
                                         <input type="hidden" name="action" value="delete" />
-                                        <input type="hidden" name="reviewId" value="${userReview.reviewId}" />
-                                        <input type="hidden" name="isbn" value="${book.isbn}" />
+                                        <input type="hidden" name="reviewId" value="${details.userReview.reviewId}" />
+                                        <input type="hidden" name="isbn" value="${details.book.isbn}" />
                                         <button type="submit" class="btn-delete" onclick="return confirm('Are you sure?');">Delete</button>
                                     </form>
                                 </c:when>
@@ -282,7 +323,7 @@
                                     <h3>Write a Review</h3>
                                     <form action="${pageContext.request.contextPath}/review" method="post">
                                         <input type="hidden" name="action" value="add" />
-                                        <input type="hidden" name="isbn" value="${book.isbn}" />
+                                        <input type="hidden" name="isbn" value="${details.book.isbn}" />
                                         
                                         <label for="rating">Rating:</label>
                                         <select name="rating" required>
@@ -311,5 +352,34 @@
         
     </div>
 
+    <script>
+        // Fetches the next page of reviews as an HTML fragment and appends it to the list.
+        function loadMoreReviews() {
+            var button = document.getElementById('load-more-reviews');
+            button.disabled = true;
+            var url = '${pageContext.request.contextPath}/review'
+                    + '?isbn=' + encodeURIComponent('<c:out value="${details.book.isbn}" />')
+                    + '&after=' + encodeURIComponent(button.dataset.nextCursor);
+
+            fetch(url)
+                .then(function (response) { return response.text(); })
+                .then(function (html) {
+                    var holder = document.createElement('div');
+                    holder.innerHTML = html;
+                    var page = holder.querySelector('.review-page');
+                    document.getElementById('review-list').appendChild(page);
+                    if (page.dataset.nextCursor) {
+                        button.dataset.nextCursor = page.dataset.nextCursor;
+                        button.disabled = false;
+                    } else {
+                        button.remove(); // that was the last page
+                    }
+                })
+                .catch(function () {
+                    button.disabled = false;
+                });
+        }
+    </script>
+
 </body>
 </html>
\ No newline at end of file
@@ -47,6 +47,19 @@
             background-color: #dc3545; /* Red */
             color: white;
         }
+        .pager {
+            width: 80%;
+            display: flex;
+            justify-content: space-between;
+            margin-top: 15px;
+        }
+        .pager a {
+            text-decoration: none;
+            padding: 6px 12px;
+            border-radius: 4px;
+            border: 1px solid #007bff;
+            color: #007bff;
+        }
         .add-button {
             text-decoration: none;
             padding: 8px 15px;
@@ -109,6 +122,7 @@
                         <tr>
                             <th>ISBN</th>
                             <th>Title</th>
+                            <th>Authors</th>
                             <th>Price</th>
                             <th>Quantity in Stock</th>
                             
@@ -130,6 +144,7 @@
                                     </a>
                                 </td>
                                 
+                                <td><c:forEach var="author" items="${bookAuthors[book.isbn]}" varStatus="status"><c:if test="${not status.first}">, </c:if><c:out value="${author.authorName}" /></c:forEach></td>
                                 <td>$<c:out value="${book.price}" /></td>
                                 <td><c:out value="${book.quantityInStock}" /></td>
                                 
@@ -146,6 +161,30 @@
                     </tbody>
                 </table>
             </c:if>
+
+            <!-- Prev / Next links for the paginated catalog (not shown for search results) -->
+            <c:if test="${not empty bookPage and (bookPage.hasPrev or bookPage.hasNext)}">
+                <div class="pager">
+                    <span>
+                        <c:if test="${bookPage.hasPrev}">
+                            <c:url var="prevUrl" value="/home">
+                                <c:param name="before" value="${bookPage.prevCursor}" />
+                                <c:param name="size" value="${bookPage.pageSize}" />
+                            </c:url>
+                            <a href="${prevUrl}">&laquo; Prev</a>
+                        </c:if>
+                    </span>
+                    <span>
+                        <c:if test="${bookPage.hasNext}">
+                            <c:url var="nextUrl" value="/home">
+                                <c:param name="after" value="${bookPage.nextCursor}" />
+                                <c:param name="size" value="${bookPage.pageSize}" />
+                            </c:url>
+                            <a href="${nextUrl}">Next &raquo;</a>
+                        </c:if>
+                    </span>
+                </div>
+            </c:if>
         
         </c:if> <!-- End of "is logged in" check -->
         <!-- *** END OF SECURITY FIX *** -->
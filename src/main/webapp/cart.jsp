@@ -85,6 +85,21 @@
             </p>
         </c:if>
 
+        <!-- Write-behind mode: earlier adds that could not be written (not enough stock) -->
+        <c:if test="${not empty rejectedItems}">
+            <div class="checkout-error">
+                Some books could not be added to your cart: Not enough items in stock.
+                <ul>
+                    <c:forEach var="line" items="${rejectedItems}">
+                        <li>
+                            <c:out value="${not empty rejectedBooks[line.key] ? rejectedBooks[line.key].title : line.key}" />
+                            (<c:out value="${line.value}" /> x)
+                        </li>
+                    </c:forEach>
+                </ul>
+            </div>
+        </c:if>
+
         <c:if test="${empty cartItems}">
             <p style="margin-top: 20px;">Your cart is empty.</p>
             <a href="${pageContext.request.contextPath}/" class="home-link">&larr; Continue Shopping</a>
@@ -95,6 +110,7 @@
                 <thead>
                     <tr>
                         <th>Book Title</th>
+                        <th>Authors</th>
                         <th>Price</th>
                         <th>Quantity</th>
                         <th>Subtotal</th>
@@ -105,6 +121,7 @@
                     <c:forEach var="item" items="${cartItems}">
                         <tr>
                             <td><c:out value="${item.bookTitle}" /></td>
+                            <td><c:forEach var="author" items="${bookAuthors[item.isbn]}" varStatus="status"><c:if test="${not status.first}">, </c:if><c:out value="${author.authorName}" /></c:forEach></td>
                             <td>$<fmt:formatNumber type="number" minFractionDigits="2" maxFractionDigits="2" value="${item.priceAtPurchase}" /></td>
                             <td><c:out value="${item.quantity}" /></td>
                             <td>$<fmt:formatNumber type="number" minFractionDigits="2" maxFractionDigits="2" value="${item.priceAtPurchase * item.quantity}" /></td>
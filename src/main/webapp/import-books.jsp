@@ -0,0 +1,93 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<%@ taglib uri="jakarta.tags.core" prefix="c" %>
+<!DOCTYPE html>
+<html>
+<head>
+    <meta charset="UTF-8">
+    <title>Import Books - Online Bookstore</title>
+    <link rel="stylesheet" href="${pageContext.request.contextPath}/css/style.css">
+    
+    <style>
+        .auth-container {
+            max-width: 600px;
+            margin-top: 30px;
+        }
+        table {
+            width: 100%;
+            border-collapse: collapse;
+            margin-top: 10px;
+            box-shadow: 0 2px 5px rgba(0,0,0,0.1);
+        }
+        th, td {
+            padding: 8px;
+            border: 1px solid #ddd;
+            text-align: left;
+        }
+        th {
+            background-color: #007bff;
+            color: white;
+        }
+        .error-message {
+            color: #dc3545;
+        }
+        .rejects {
+            text-align: left;
+            font-size: 0.9rem;
+        }
+    </style>
+</head>
+<body>
+    <%@ include file="common/navigation.jspf" %>
+    
+    <div class="auth-container">
+        <h1>Import Books</h1>
+
+        <p>Upload a CSV file with the columns <code>isbn,title,price,quantity,authors</code>.
+           Separate multiple authors with <code>;</code>. Existing books (same ISBN) are updated.</p>
+
+        <c:if test="${not empty errorMessage}">
+            <p class="error-message"><c:out value="${errorMessage}" /></p>
+        </c:if>
+
+        <form action="${pageContext.request.contextPath}/importBooks" method="post" enctype="multipart/form-data">
+            <label for="file">CSV File</label>
+            <input type="file" name="file" id="file" accept=".csv,text/csv" required>
+            <button type="submit">Import</button>
+        </form>
+
+        <c:if test="${not empty importResult}">
+            <h2>Import Result</h2>
+            <table>
+                <tr><td>Rows read</td><td><c:out value="${importResult.rowsRead}" /></td></tr>
+                <tr><td>Books imported</td><td><c:out value="${importResult.booksImported}" /></td></tr>
+                <tr><td>Authors created</td><td><c:out value="${importResult.authorsCreated}" /></td></tr>
+                <tr><td>Rows rejected</td><td><c:out value="${importResult.rejectCount}" /></td></tr>
+                <tr><td>Time</td><td><c:out value="${importResult.elapsedMillis}" /> ms (<c:out value="${importResult.rowsPerSecond}" /> rows/s)</td></tr>
+            </table>
+
+            <c:if test="${not empty importResult.rejects}">
+                <h3>Rejected Rows</h3>
+                <ul class="rejects">
+                    <c:forEach var="reject" items="${importResult.rejects}">
+                        <li><c:out value="${reject}" /></li>
+                    </c:forEach>
+                </ul>
+                <c:if test="${importResult.rejectCount > importResult.rejects.size()}">
+                    <p>... and <c:out value="${importResult.rejectCount - importResult.rejects.size()}" /> more (only the first ones are listed).</p>
+                </c:if>
+            </c:if>
+        </c:if>
+
+        <h2>Export Catalog</h2>
+        <p>Download every book with its authors, stock and average rating.</p>
+        <p>
+            <a href="${pageContext.request.contextPath}/exportBooks?format=csv">Download CSV</a>
+            |
+            <a href="${pageContext.request.contextPath}/exportBooks?format=ndjson">Download NDJSON</a>
+        </p>
+
+        <a href="${pageContext.request.contextPath}/" class="home-link" style="text-align: center; display: block;">Back to Book List</a>
+    </div>
+</body>
+</html>
@@ -0,0 +1,110 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<%@ taglib uri="jakarta.tags.core" prefix="c" %>
+<%@ taglib uri="jakarta.tags.fmt" prefix="fmt" %> <!-- For formatting numbers and dates -->
+
+<!DOCTYPE html>
+<html>
+<head>
+    <meta charset="UTF-8">
+    <title>My Orders - Online Bookstore</title>
+    <link rel="stylesheet" href="${pageContext.request.contextPath}/css/style.css">
+
+    <style>
+        /* [Reusing table styles] */
+        table {
+            width: 80%;
+            border-collapse: collapse;
+            margin-top: 20px;
+            box-shadow: 0 2px 5px rgba(0,0,0,0.1);
+        }
+        th, td {
+            padding: 12px;
+            border: 1px solid #ddd;
+            text-align: left;
+        }
+        th {
+            background-color: #007bff;
+            color: white;
+        }
+        tr:nth-child(even) {
+            background-color: #f9f9f9;
+        }
+        .pager {
+            width: 80%;
+            display: flex;
+            justify-content: space-between;
+            margin-top: 15px;
+        }
+        .pager a {
+            text-decoration: none;
+            padding: 6px 12px;
+            border-radius: 4px;
+            border: 1px solid #007bff;
+            color: #007bff;
+        }
+    </style>
+</head>
+<body>
+
+    <div class="home-container">
+
+        <%@ include file="common/navigation.jspf" %>
+
+        <h1>My Orders</h1>
+
+        <c:if test="${empty orderList}">
+            <p style="margin-top: 20px;">You have not placed any orders yet.</p>
+        </c:if>
+
+        <c:if test="${not empty orderList}">
+            <table>
+                <thead>
+                    <tr>
+                        <th>Order #</th>
+                        <th>Date</th>
+                        <th>Status</th>
+                        <th>Items</th>
+                        <th>Total</th>
+                    </tr>
+                </thead>
+                <tbody>
+                    <c:forEach var="order" items="${orderList}">
+                        <tr>
+                            <td><c:out value="${order.orderId}" /></td>
+                            <td><fmt:formatDate value="${order.orderDate}" pattern="yyyy-MM-dd HH:mm" /></td>
+                            <td><c:out value="${order.status}" /></td>
+                            <td><c:out value="${order.itemCount}" /></td>
+                            <td>$<fmt:formatNumber type="number" minFractionDigits="2" maxFractionDigits="2" value="${order.totalAmount}" /></td>
+                        </tr>
+                    </c:forEach>
+                </tbody>
+            </table>
+        </c:if>
+
+        <!-- Newer / Older links; newest orders come first -->
+        <c:if test="${not empty orderPage and (orderPage.hasPrev or orderPage.hasNext)}">
+            <div class="pager">
+                <span>
+                    <c:if test="${orderPage.hasPrev}">
+                        <c:url var="prevUrl" value="/orders">
+                            <c:param name="before" value="${orderPage.prevCursor}" />
+                            <c:param name="size" value="${orderPage.pageSize}" />
+                        </c:url>
+                        <a href="${prevUrl}">&laquo; Newer</a>
+                    </c:if>
+                </span>
+                <span>
+                    <c:if test="${orderPage.hasNext}">
+                        <c:url var="nextUrl" value="/orders">
+                            <c:param name="after" value="${orderPage.nextCursor}" />
+                            <c:param name="size" value="${orderPage.pageSize}" />
+                        </c:url>
+                        <a href="${nextUrl}">Older &raquo;</a>
+                    </c:if>
+                </span>
+            </div>
+        </c:if>
+
+    </div> </body>
+</html>
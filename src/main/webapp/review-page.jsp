@@ -0,0 +1,11 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<%@ taglib uri="jakarta.tags.core" prefix="c" %>
+<%-- 
+    HTML fragment with one more page of reviews, fetched by the
+    "Load more reviews" button on book-details.jsp.
+--%>
+<c:set var="reviewList" value="${reviewPage.items}" />
+<div class="review-page" data-next-cursor="<c:out value='${reviewPage.nextCursor}' />">
+    <%@ include file="common/review-cards.jspf" %>
+</div>
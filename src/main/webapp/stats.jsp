@@ -0,0 +1,66 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<%@ taglib uri="jakarta.tags.core" prefix="c" %>
+
+<!DOCTYPE html>
+<html>
+<head>
+    <meta charset="UTF-8">
+    <title>System Statistics - Online Bookstore</title>
+    <link rel="stylesheet" href="${pageContext.request.contextPath}/css/style.css">
+    
+    <style>
+        /* [Reusing table styles] */
+        table {
+            width: 60%;
+            border-collapse: collapse;
+            margin-top: 10px;
+            margin-bottom: 25px;
+            box-shadow: 0 2px 5px rgba(0,0,0,0.1);
+        }
+        th, td {
+            padding: 10px;
+            border: 1px solid #ddd;
+            text-align: left;
+        }
+        th {
+            background-color: #007bff;
+            color: white;
+        }
+        tr:nth-child(even) {
+            background-color: #f9f9f9;
+        }
+    </style>
+</head>
+<body>
+    
+    <div class="home-container">
+
+        <%@ include file="common/navigation.jspf" %>
+
+        <h1>System Statistics</h1>
+
+        <c:forEach var="section" items="${stats}">
+            <h2><c:out value="${section.key}" /></h2>
+            <table>
+                <thead>
+                    <tr>
+                        <th>Counter</th>
+                        <th>Value</th>
+                    </tr>
+                </thead>
+                <tbody>
+                    <c:forEach var="counter" items="${section.value}">
+                        <tr>
+                            <td><c:out value="${counter.key}" /></td>
+                            <td><c:out value="${counter.value}" /></td>
+                        </tr>
+                    </c:forEach>
+                </tbody>
+            </table>
+        </c:forEach>
+
+    </div> <!-- End of .home-container -->
+
+</body>
+</html>